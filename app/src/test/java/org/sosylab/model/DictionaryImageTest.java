@@ -0,0 +1,90 @@
+package org.sosylab.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Round trips, corrupt images and outdated images for the {@link DictionaryImage}.
+ */
+class DictionaryImageTest {
+
+  private static byte[] solutionText;
+  private static byte[] allowedText;
+  private static byte[] image;
+
+  @BeforeAll
+  static void compileImage(@TempDir Path directory) throws IOException {
+    solutionText = WordProvider.readResource(WordProvider.SOLUTION_WORDLE_FILE_PATH);
+    allowedText = WordProvider.readResource(WordProvider.ACCEPT_WORDLE_FILE_PATH);
+    Path file = directory.resolve("words.bin");
+    DictionaryImage.compile(file);
+    image = Files.readAllBytes(file);
+  }
+
+  private static void assertSameWords(Dictionary expected, Dictionary actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int id = 0; id < expected.size(); id++) {
+      assertEquals(expected.getPacked(id), actual.getPacked(id));
+    }
+  }
+
+  @Test
+  void compiledImageHoldsTheWords() {
+    DictionaryImage read = DictionaryImage.read(ByteBuffer.wrap(image));
+    assertNotNull(read);
+    assertSameWords(WordProvider.parseSolutions(solutionText), read.getSolutions());
+    assertSameWords(WordProvider.parseAllowedWords(allowedText, solutionText),
+        read.getAllowedWords());
+    assertTrue(read.matchesSources(solutionText, allowedText));
+    assertTrue(read.matchesSourceSizes(solutionText.length, allowedText.length));
+  }
+
+  @Test
+  void truncatedImageIsRejected() {
+    for (int length = 0; length < image.length; length += length < 64 ? 1 : 997) {
+      assertNull(DictionaryImage.read(ByteBuffer.wrap(image, 0, length)));
+    }
+    assertNull(DictionaryImage.read(ByteBuffer.wrap(image, 0, image.length - 1)));
+  }
+
+  @Test
+  void changedByteIsRejected() {
+    for (int i = 0; i < image.length; i += i < 64 ? 1 : 499) {
+      byte[] corrupt = image.clone();
+      corrupt[i] ^= 0x10;
+      assertNull(DictionaryImage.read(ByteBuffer.wrap(corrupt)), "byte " + i);
+    }
+  }
+
+  @Test
+  void imageOfOtherWordsOfTheSameSizeDoesNotMatch() {
+    //replace the first allowed word by another one, so that the size of the text stays the same
+    String text = new String(allowedText, StandardCharsets.UTF_8);
+    String first = text.substring(0, Game.NUMBER_OF_CHARS_IN_WORD);
+    byte[] otherText = text.replaceFirst(first, "zzzzz").getBytes(StandardCharsets.UTF_8);
+    assertEquals(allowedText.length, otherText.length);
+
+    DictionaryImage read = DictionaryImage.read(ByteBuffer.wrap(image));
+    assertTrue(read.matchesSourceSizes(solutionText.length, otherText.length));
+    assertFalse(read.matchesSources(solutionText, otherText));
+  }
+
+  @Test
+  void builtImageIsBundledWithTheTextFiles() {
+    assertTrue(DictionaryImage.isBundledWith(WordProvider.SOLUTION_WORDLE_FILE_PATH,
+        WordProvider.ACCEPT_WORDLE_FILE_PATH));
+    assertFalse(DictionaryImage.isBundledWith("missing.txt"));
+  }
+}
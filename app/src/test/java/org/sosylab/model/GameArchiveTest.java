@@ -0,0 +1,181 @@
+package org.sosylab.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Round trips and corrupt input for the snapshots of {@link GameArchive}.
+ */
+class GameArchiveTest {
+
+  @TempDir
+  Path directory;
+
+  private static Game play(String solution, boolean hardMode, String... guesses) {
+    Game game = new Game(solution, OutputSink.DISCARD, hardMode);
+    for (String guess : guesses) {
+      assertTrue(game.guessWord(guess).isPresent(), guess);
+    }
+    return game;
+  }
+
+  private static byte[] encode(Game game) {
+    ByteBuffer buffer = ByteBuffer.allocate(GameArchive.MAX_SNAPSHOT_SIZE);
+    GameArchive.encode(game, buffer);
+    return Arrays.copyOf(buffer.array(), buffer.position());
+  }
+
+  private static Game decode(byte[] snapshot) {
+    ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+    Game game = GameArchive.decode(buffer, OutputSink.DISCARD);
+    assertEquals(0, buffer.remaining());
+    return game;
+  }
+
+  static void assertSameGame(Game expected, Game actual) {
+    assertEquals(expected.getState().getCurrentPhase(), actual.getState().getCurrentPhase());
+    assertEquals(expected.getState().getRemainingGuesses(),
+        actual.getState().getRemainingGuesses());
+    assertEquals(expected.getState().getSolutionWord().reveal().getWord(),
+        actual.getState().getSolutionWord().reveal().getWord());
+    assertEquals(expected.isHardMode(), actual.isHardMode());
+    assertEquals(expected.isAdversarial(), actual.isAdversarial());
+    assertEquals(describe(expected.getUserGuesses()), describe(actual.getUserGuesses()));
+  }
+
+  private static List<String> describe(List<Guess> guesses) {
+    return guesses.stream()
+        .map(guess -> guess.getWord() + ":" + guess.getPattern())
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  void runningGameRoundTrips() {
+    Game game = play("crane", true, "salet", "react");
+    assertSameGame(game, decode(encode(game)));
+  }
+
+  @Test
+  void finishedGamesRoundTrip() {
+    Game won = play("crane", false, "salet", "crane");
+    assertEquals(Phase.WON, won.getState().getCurrentPhase());
+    assertSameGame(won, decode(encode(won)));
+
+    Game lost = play("crane", false,
+        "salet", "moldy", "pinky", "bumph", "salet", "moldy", "pinky");
+    assertEquals(Phase.LOST, lost.getState().getCurrentPhase());
+    assertSameGame(lost, decode(encode(lost)));
+  }
+
+  @Test
+  void solutionOutsideTheSolutionsRoundTrips() {
+    //an allowed word that is no solution word is stored packed
+    String solution = WordProvider.getAllowedWords().getWord(0);
+    assertEquals(Dictionary.NOT_FOUND, WordProvider.getSolutions().indexOf(solution));
+    Game game = play(solution, false, "salet");
+    assertSameGame(game, decode(encode(game)));
+  }
+
+  @Test
+  void truncatedSnapshotIsRejected() {
+    byte[] snapshot = encode(play("crane", false, "salet", "react"));
+    for (int length = 0; length < snapshot.length; length++) {
+      byte[] truncated = Arrays.copyOf(snapshot, length);
+      assertThrows(IllegalArgumentException.class, () -> decode(truncated));
+    }
+  }
+
+  @Test
+  void corruptPatternIsRejected() {
+    byte[] snapshot = encode(play("crane", false, "salet"));
+    int last = snapshot.length - 1;
+    snapshot[last] = (byte) (((snapshot[last] & 0xFF) + 1) % FeedbackMatrix.PATTERN_COUNT);
+    assertThrows(IllegalArgumentException.class, () -> decode(snapshot));
+  }
+
+  @Test
+  void corruptGuessIdIsRejected() {
+    byte[] snapshot = encode(play("crane", false, "salet"));
+    //the id of the only guess follows the flags, the remaining guesses and the solution id
+    snapshot[4] = (byte) 0xFF;
+    snapshot[5] = (byte) 0xFF;
+    assertThrows(IllegalArgumentException.class, () -> decode(snapshot));
+  }
+
+  @Test
+  void savedGameLoads() throws IOException {
+    Game game = play("crane", true, "salet", "react");
+    Path file = directory.resolve("game.sav");
+    GameArchive.save(game, file);
+    assertSameGame(game, GameArchive.load(file, OutputSink.DISCARD));
+  }
+
+  @Test
+  void failedSaveKeepsTheFile() throws IOException {
+    Path file = directory.resolve("game.sav");
+    GameArchive.save(play("crane", false, "salet"), file);
+    byte[] saved = Files.readAllBytes(file);
+
+    Game unsavable = new Game("ab-de", OutputSink.DISCARD);
+    assertThrows(IllegalArgumentException.class, () -> GameArchive.save(unsavable, file));
+    assertArrayEquals(saved, Files.readAllBytes(file));
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(List.of(file), files.collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  void fileWithoutHeaderIsRejected() throws IOException {
+    Path file = directory.resolve("game.sav");
+    Files.write(file, new byte[] {'W', 'S', 'A'});
+    assertThrows(IllegalArgumentException.class,
+        () -> GameArchive.load(file, OutputSink.DISCARD));
+  }
+
+  /**
+   * Play the i-th of many different games, most of which take several guesses.
+   */
+  private static Game streamedGame(int i) {
+    Dictionary solutions = WordProvider.getSolutions();
+    Game game = new Game(solutions.getWord(i % solutions.size()), OutputSink.DISCARD, i % 3 == 0);
+    for (String guess : List.of("salet", "moldy", "pinky", "bumph", "fjord", "corny", "react")) {
+      if (game.getState().getCurrentPhase() == Phase.RUNNING) {
+        game.guessWord(guess);
+      }
+    }
+    return game;
+  }
+
+  @Test
+  void gamesBeyondOneBufferStreamThroughWriterAndReader() throws IOException {
+    //enough games to fill the buffers of the writer and the reader more than once
+    int count = 100_000;
+    Path file = directory.resolve("games.sav");
+    try (GameArchive.Writer writer = new GameArchive.Writer(file)) {
+      for (int i = 0; i < count; i++) {
+        writer.write(streamedGame(i));
+      }
+    }
+    try (GameArchive.Reader reader = new GameArchive.Reader(file, OutputSink.DISCARD)) {
+      for (int i = 0; i < count; i++) {
+        assertSameGame(streamedGame(i), reader.read());
+      }
+      assertNull(reader.read());
+    }
+    assertTrue(Files.size(file) > 1 << 20);
+  }
+}
@@ -0,0 +1,172 @@
+package org.sosylab.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.sosylab.model.GameArchiveTest.assertSameGame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Round trips, cut off files and impossible events for the records of the {@link GameJournal}.
+ */
+class GameJournalTest {
+
+  //the types of the records and the flags of a new game, as written by the journal
+  private static final int NEW = 1;
+  private static final int GUESS = 2;
+  private static final int PHASE = 4;
+  private static final int HARD_MODE = 1;
+
+  @TempDir
+  Path directory;
+
+  private static Game play(GameJournal journal, boolean hardMode, String solution,
+      String... guesses) {
+    Game game = new Game(solution, OutputSink.DISCARD, hardMode);
+    game.journalTo(journal);
+    for (String guess : guesses) {
+      assertTrue(game.guessWord(guess).isPresent(), guess);
+    }
+    return game;
+  }
+
+  private static Map<Long, Game> replay(Path file) throws IOException {
+    return GameJournal.replay(file, OutputSink.DISCARD);
+  }
+
+  @Test
+  void runningGamesAreRestored() throws IOException {
+    Path file = directory.resolve("games.journal");
+    Game running;
+    Game fresh;
+    try (GameJournal journal = GameJournal.open(file, 0)) {
+      running = play(journal, true, "crane", "salet", "react");
+      play(journal, false, "crane", "salet", "crane");
+      Game forfeited = play(journal, false, "moldy", "salet");
+      forfeited.forfeit();
+      fresh = play(journal, false, "pinky");
+    }
+
+    Map<Long, Game> games = replay(file);
+    assertEquals(List.of(1L, 4L), List.copyOf(games.keySet()));
+    assertSameGame(running, games.get(1L));
+    assertSameGame(fresh, games.get(4L));
+  }
+
+  @Test
+  void gamesContinueAfterReopening() throws IOException {
+    Path file = directory.resolve("games.journal");
+    try (GameJournal journal = GameJournal.open(file, 0)) {
+      play(journal, false, "crane", "salet");
+    }
+    Game continued;
+    try (GameJournal journal = GameJournal.open(file, 0)) {
+      continued = play(journal, false, "moldy", "salet", "react");
+    }
+
+    Map<Long, Game> games = replay(file);
+    assertEquals(List.of(1L, 2L), List.copyOf(games.keySet()));
+    assertSameGame(continued, games.get(2L));
+  }
+
+  @Test
+  void recordCutOffAtTheEndIsDropped() throws IOException {
+    Path file = directory.resolve("games.journal");
+    Game game;
+    try (GameJournal journal = GameJournal.open(file, 0)) {
+      game = play(journal, false, "crane", "salet", "react");
+    }
+    long size = Files.size(file);
+
+    //cutting into the last guess leaves the game with one guess less
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.truncate(size - 1);
+    }
+    Game restored = replay(file).get(1L);
+    assertEquals(1, restored.getUserGuesses().size());
+    assertEquals(game.getUserGuesses().get(0).getWord(),
+        restored.getUserGuesses().get(0).getWord());
+
+    //opening the journal drops the partial record, so new records start at a record boundary
+    try (GameJournal journal = GameJournal.open(file, 0)) {
+      assertEquals(size - GameJournal.RECORD_SIZE, Files.size(file));
+      play(journal, false, "moldy", "salet");
+    }
+    assertEquals(List.of(1L, 2L), List.copyOf(replay(file).keySet()));
+  }
+
+  @Test
+  void gameWithImpossibleEventsIsDropped() throws IOException {
+    int crane = Dictionary.pack("crane");
+    int salet = Dictionary.pack("salet");
+    int pattern = SolutionWord.score("salet".toCharArray(), "crane".toCharArray());
+    ByteBuffer records = ByteBuffer.allocate(64 * GameJournal.RECORD_SIZE);
+    //game 1 is fine, game 2 has too many guesses, game 3 an invalid phase, game 4 an unknown
+    //event, game 5 a word that is no word and game 6 a pattern that is no pattern
+    for (long id = 1; id <= 6; id++) {
+      record(records, NEW, id, crane, crane, HARD_MODE);
+    }
+    record(records, GUESS, 1, salet, crane, pattern);
+    for (int i = 0; i <= Game.NUMBER_OF_GUESSES + 1; i++) {
+      record(records, GUESS, 2, salet, crane, pattern);
+    }
+    record(records, PHASE, 3, Game.NUMBER_OF_GUESSES, 0, 9);
+    record(records, 77, 4, 0, 0, 0);
+    record(records, GUESS, 5, Dictionary.NOT_FOUND, crane, pattern);
+    record(records, GUESS, 6, salet, crane, 250);
+    Path file = journalOf(records);
+
+    Map<Long, Game> games = replay(file);
+    assertEquals(List.of(1L), List.copyOf(games.keySet()));
+    assertEquals("salet", games.get(1L).getUserGuesses().get(0).getWord());
+
+    //the journal still opens and continues after the highest id
+    try (GameJournal journal = GameJournal.open(file, 0)) {
+      play(journal, false, "moldy");
+    }
+    assertEquals(List.of(1L, 7L), List.copyOf(replay(file).keySet()));
+  }
+
+  @Test
+  void fileThatIsNoJournalIsRejected() throws IOException {
+    Path file = directory.resolve("games.journal");
+    Files.write(file, new byte[] {'n', 'o', ' ', 'j', 'o', 'u', 'r', 'n', 'a', 'l'});
+    assertThrows(IllegalArgumentException.class, () -> replay(file));
+    assertThrows(IllegalArgumentException.class, () -> GameJournal.open(file, 0));
+  }
+
+  @Test
+  void missingJournalHasNoGames() throws IOException {
+    Path file = directory.resolve("missing.journal");
+    assertTrue(replay(file).isEmpty());
+    assertEquals(0, GameJournal.countEvents(file));
+  }
+
+  private static void record(ByteBuffer records, int type, long id, int word, int solution,
+      int value) {
+    records.put((byte) type).putLong(id).putInt(word).putInt(solution).put((byte) value);
+  }
+
+  private Path journalOf(ByteBuffer records) throws IOException {
+    Path file = directory.resolve("games.journal");
+    //start with the header of an empty journal
+    GameJournal.open(file, 0).close();
+    records.flip();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+      while (records.hasRemaining()) {
+        channel.write(records);
+      }
+    }
+    return file;
+  }
+}
@@ -0,0 +1,84 @@
+package org.sosylab.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.sosylab.model.GameArchiveTest.assertSameGame;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Round trips and tampered tokens for the {@link GameTokenCodec}.
+ */
+class GameTokenCodecTest {
+
+  private final GameTokenCodec codec =
+      new GameTokenCodec("a key for tests".getBytes(StandardCharsets.UTF_8));
+
+  private static Game play(String solution, boolean hardMode, String... guesses) {
+    Game game = new Game(solution, OutputSink.DISCARD, hardMode);
+    for (String guess : guesses) {
+      game.guessWord(guess);
+    }
+    return game;
+  }
+
+  private Game decode(byte[] token) {
+    return codec.decode(Base64.getUrlEncoder().withoutPadding().encodeToString(token),
+        OutputSink.DISCARD);
+  }
+
+  @Test
+  void gamesRoundTrip() {
+    for (Game game : new Game[] {
+        play("crane", false),
+        play("crane", true, "salet", "react"),
+        play("crane", false, "salet", "crane"),
+        play("crane", false, "salet", "moldy", "pinky", "bumph", "salet", "moldy", "pinky")}) {
+      assertSameGame(game, codec.decode(codec.encode(game), OutputSink.DISCARD));
+    }
+  }
+
+  @Test
+  void forfeitedGameRoundTrips() {
+    Game game = play("crane", false, "salet");
+    game.forfeit();
+    Game decoded = codec.decode(codec.encode(game), OutputSink.DISCARD);
+    assertSameGame(game, decoded);
+    assertEquals(Phase.LOST, decoded.getState().getCurrentPhase());
+  }
+
+  @Test
+  void everyChangedByteIsRejected() {
+    byte[] token = Base64.getUrlDecoder().decode(codec.encode(play("crane", true, "salet")));
+    for (int i = 0; i < token.length; i++) {
+      byte[] tampered = token.clone();
+      tampered[i] ^= 1;
+      assertThrows(IllegalArgumentException.class, () -> decode(tampered));
+    }
+  }
+
+  @Test
+  void truncatedTokenIsRejected() {
+    byte[] token = Base64.getUrlDecoder().decode(codec.encode(play("crane", false, "salet")));
+    for (int length = 0; length < token.length; length++) {
+      byte[] truncated = Arrays.copyOf(token, length);
+      assertThrows(IllegalArgumentException.class, () -> decode(truncated));
+    }
+  }
+
+  @Test
+  void tokenOfAnotherKeyIsRejected() {
+    String token = codec.encode(play("crane", false, "salet"));
+    GameTokenCodec other = new GameTokenCodec("another key".getBytes(StandardCharsets.UTF_8));
+    assertThrows(IllegalArgumentException.class, () -> other.decode(token, OutputSink.DISCARD));
+  }
+
+  @Test
+  void textThatIsNoBase64IsRejected() {
+    assertThrows(IllegalArgumentException.class,
+        () -> codec.decode("not a token!", OutputSink.DISCARD));
+  }
+}
@@ -0,0 +1,116 @@
+package org.sosylab.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Round trips and corrupt nodes for the file format of the {@link OpeningBook}.
+ */
+class OpeningBookTest {
+
+  //the layout of the file: a header of 16 bytes, then the root node with its guess in two bytes,
+  //its number of children in one byte and each child as a pattern and an offset of four bytes
+  private static final int ROOT = 16;
+  private static final int FIRST_CHILD_OFFSET = ROOT + 3 + 1;
+
+  private static OpeningBook book;
+  private static byte[] file;
+
+  @TempDir
+  Path directory;
+
+  @BeforeAll
+  static void buildBook(@TempDir Path cache) throws IOException {
+    FeedbackMatrix matrix = FeedbackMatrix.loadOrBuild(WordProvider.getAllowedWords(),
+        WordProvider.getSolutions(), cache.resolve("feedback.bin"));
+    book = OpeningBook.build(matrix, List.of("salet"), Solver.Objective.ENTROPY).get(0);
+    Path saved = cache.resolve("salet.book");
+    book.save(saved);
+    file = Files.readAllBytes(saved);
+  }
+
+  private OpeningBook load(byte[] content) throws IOException {
+    Path saved = directory.resolve("test.book");
+    Files.write(saved, content);
+    return OpeningBook.load(saved);
+  }
+
+  private void assertRejected(Consumer<ByteBuffer> corruption) {
+    byte[] corrupt = file.clone();
+    corruption.accept(ByteBuffer.wrap(corrupt));
+    assertThrows(IllegalArgumentException.class, () -> load(corrupt));
+  }
+
+  @Test
+  void savedBookLoads() throws IOException {
+    OpeningBook loaded = load(file);
+    assertEquals("salet", loaded.getOpener());
+    assertArrayEquals(book.guessesPerSolution(), loaded.guessesPerSolution());
+  }
+
+  @Test
+  void followingTheBookSolvesTheGame() throws IOException {
+    OpeningBook loaded = load(file);
+    int[] guessCounts = loaded.guessesPerSolution();
+    Dictionary solutions = WordProvider.getSolutions();
+    for (int id = 0; id < solutions.size(); id += 7) {
+      Game game = new Game(solutions.getWord(id), OutputSink.DISCARD);
+      while (game.getState().getCurrentPhase() == Phase.RUNNING) {
+        Optional<String> guess = loaded.nextGuess(game);
+        assertTrue(guess.isPresent(), solutions.getWord(id));
+        game.guessWord(guess.get());
+      }
+      assertTrue(game.isGameWon());
+      assertEquals(guessCounts[id], game.getUserGuesses().size());
+    }
+  }
+
+  @Test
+  void gameThatLeftTheBookGetsNoGuess() throws IOException {
+    Game game = new Game("crane", OutputSink.DISCARD);
+    game.guessWord("react");
+    assertEquals(Optional.empty(), load(file).nextGuess(game));
+  }
+
+  @Test
+  void truncatedBookIsRejected() {
+    for (int length = 0; length < file.length; length += length < 64 ? 1 : 211) {
+      byte[] truncated = Arrays.copyOf(file, length);
+      assertThrows(IllegalArgumentException.class, () -> load(truncated));
+    }
+  }
+
+  @Test
+  void bookOfOtherWordsIsRejected() {
+    assertRejected(content -> content.putLong(8, content.getLong(8) + 1));
+  }
+
+  @Test
+  void corruptNodesAreRejected() {
+    assertRejected(content -> content.putInt(FIRST_CHILD_OFFSET, file.length));
+    assertRejected(content -> content.putInt(FIRST_CHILD_OFFSET, -1));
+    assertRejected(content -> content.putInt(FIRST_CHILD_OFFSET, ROOT + 1));
+    assertRejected(content -> content.putShort(ROOT, (short) -1));
+    assertRejected(content -> content.put(ROOT + 2, (byte) -1));
+  }
+
+  @Test
+  void cycleIsRejected() {
+    //the first child leads back to the root
+    assertRejected(content -> content.putInt(FIRST_CHILD_OFFSET, ROOT));
+  }
+}
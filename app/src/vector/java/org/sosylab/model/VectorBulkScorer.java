@@ -0,0 +1,69 @@
+package org.sosylab.model;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Scores a guess against as many solution words per instruction as fit into a vector register.
+ * Each lane holds one solution word and goes through the same steps as
+ * {@link SolutionWord#score(char[], char[])}: the letters at the right position are marked as
+ * correct first, and then every other letter of the guess consumes the first unused occurrence in
+ * the solution word. The unused positions of a lane are kept as bits of a byte.
+ *
+ * <p>This class needs the incubator module {@code jdk.incubator.vector} and is therefore only
+ * compiled by Maven and only created by {@link BulkScorer#of(Dictionary)} if the module is
+ * present.
+ */
+final class VectorBulkScorer extends BulkScorer {
+
+  private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+  VectorBulkScorer(Dictionary solutions) {
+    super(solutions);
+  }
+
+  @Override
+  void score(char[] guess, byte[] patterns, int offset) {
+    Game.throwErrorIfInvalidWordSize(guess.length);
+    byte[] guessLetters = new byte[Game.NUMBER_OF_CHARS_IN_WORD];
+    for (int i = 0; i < Game.NUMBER_OF_CHARS_IN_WORD; i++) {
+      guessLetters[i] = (byte) (guess[i] - 'a');
+    }
+
+    int bound = SPECIES.loopBound(size);
+    int s = 0;
+    for (; s < bound; s += SPECIES.length()) {
+      ByteVector pattern = ByteVector.zero(SPECIES);
+      ByteVector unused = ByteVector.zero(SPECIES);
+      for (int i = 0; i < Game.NUMBER_OF_CHARS_IN_WORD; i++) {
+        VectorMask<Byte> correct = letters(i, s).eq(guessLetters[i]);
+        pattern = pattern.add((byte) (CORRECT * SolutionWord.PATTERN_WEIGHTS[i]), correct);
+        unused = unused.lanewise(VectorOperators.OR, (byte) (1 << i), correct.not());
+      }
+
+      for (int i = 0; i < Game.NUMBER_OF_CHARS_IN_WORD; i++) {
+        VectorMask<Byte> open = letters(i, s).eq(guessLetters[i]).not();
+        VectorMask<Byte> pending = open;
+        for (int j = 0; j < Game.NUMBER_OF_CHARS_IN_WORD; j++) {
+          VectorMask<Byte> match = pending
+              .and(letters(j, s).eq(guessLetters[i]))
+              .and(unused.and((byte) (1 << j)).compare(VectorOperators.NE, (byte) 0));
+          unused = unused.lanewise(VectorOperators.AND, (byte) ~(1 << j), match);
+          pending = pending.andNot(match);
+        }
+        pattern = pattern.add((byte) (CONTAINED * SolutionWord.PATTERN_WEIGHTS[i]),
+            open.andNot(pending));
+      }
+      pattern.intoArray(patterns, offset + s);
+    }
+
+    //the words that do not fill a whole vector
+    scoreRange(guess, patterns, offset, s, size);
+  }
+
+  private ByteVector letters(int position, int from) {
+    return ByteVector.fromArray(SPECIES, columns[position], from);
+  }
+}
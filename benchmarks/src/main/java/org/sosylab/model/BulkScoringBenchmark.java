@@ -0,0 +1,69 @@
+package org.sosylab.model;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the evaluation of a single guess against all solution words, one pair at a time and
+ * with both bulk scorers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class BulkScoringBenchmark {
+
+  @Param({"soare", "civic"})
+  public String guess;
+
+  private char[] guessLetters;
+  private char[][] solutions;
+  private BulkScorer scalarScorer;
+  private BulkScorer vectorScorer;
+  private byte[] patterns;
+
+  @Setup
+  public void setUp() {
+    guessLetters = guess.toCharArray();
+    Dictionary dictionary = WordProvider.getSolutions();
+    solutions = new char[dictionary.size()][Game.NUMBER_OF_CHARS_IN_WORD];
+    for (int s = 0; s < solutions.length; s++) {
+      dictionary.getLetters(s, solutions[s]);
+    }
+    scalarScorer = new BulkScorer(dictionary);
+    vectorScorer = BulkScorer.of(dictionary);
+    patterns = new byte[dictionary.size()];
+  }
+
+  @Benchmark
+  public byte[] pairwise() {
+    for (int s = 0; s < solutions.length; s++) {
+      patterns[s] = (byte) SolutionWord.score(guessLetters, solutions[s]);
+    }
+    return patterns;
+  }
+
+  @Benchmark
+  public byte[] scalar() {
+    scalarScorer.score(guessLetters, patterns, 0);
+    return patterns;
+  }
+
+  @Benchmark
+  public byte[] vector() {
+    vectorScorer.score(guessLetters, patterns, 0);
+    return patterns;
+  }
+}
@@ -0,0 +1,40 @@
+package org.sosylab.model;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link Game#guessWord(String)} end to end, including rendering the board. The output
+ * is discarded so that the console does not distort the numbers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+
+  private static final String[] GUESSES = {"soare", "until", "dingy", "melon", "crazy", "cigar"};
+
+  private final PrintStream output = new PrintStream(OutputStream.nullOutputStream());
+
+  @Benchmark
+  public Game playFullGame() {
+    Game game = new Game("cigar", output);
+    for (String guess : GUESSES) {
+      game.guessWord(guess);
+    }
+    return game;
+  }
+}
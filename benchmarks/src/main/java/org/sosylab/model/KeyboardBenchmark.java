@@ -0,0 +1,50 @@
+package org.sosylab.model;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures updating and rendering the {@link Keyboard}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KeyboardBenchmark {
+
+  private Guess guess;
+  private Keyboard usedKeyboard;
+
+  @Setup
+  public void setUp() {
+    SolutionWord solution = new SolutionWord("cigar");
+    guess = solution.guessWord("soare");
+
+    usedKeyboard = new Keyboard();
+    usedKeyboard.updateKeyboard(guess);
+    usedKeyboard.updateKeyboard(solution.guessWord("melon"));
+  }
+
+  @Benchmark
+  public Keyboard updateKeyboard() {
+    Keyboard keyboard = new Keyboard();
+    keyboard.updateKeyboard(guess);
+    return keyboard;
+  }
+
+  @Benchmark
+  public String render() {
+    return usedKeyboard.toString();
+  }
+}
@@ -0,0 +1,51 @@
+package org.sosylab.model;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the evaluation of a single guess against a solution word.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScoringBenchmark {
+
+  @Param({"cigar"})
+  public String solution;
+
+  @Param({"soare", "civic", "cigar"})
+  public String guess;
+
+  private SolutionWord solutionWord;
+  private char[] guessLetters;
+
+  @Setup
+  public void setUp() {
+    solutionWord = new SolutionWord(solution);
+    guessLetters = guess.toCharArray();
+  }
+
+  @Benchmark
+  public Guess guessWord() {
+    return solutionWord.guessWord(guess);
+  }
+
+  @Benchmark
+  public int score() {
+    return solutionWord.score(guessLetters);
+  }
+}
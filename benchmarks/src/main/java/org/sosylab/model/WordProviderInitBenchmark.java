@@ -0,0 +1,44 @@
+package org.sosylab.model;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures loading the word lists of the {@link WordProvider}. They are loaded by the static
+ * initializer of its nested holder class, which every invocation initializes in a fresh class
+ * loader, so that the word lists are loaded again.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(3)
+@State(Scope.Benchmark)
+public class WordProviderInitBenchmark {
+
+  /**
+   * The class whose initialization loads the word lists.
+   */
+  private static final String WORDS_HOLDER = WordProvider.class.getName() + "$Words";
+
+  private final URL[] classPath = {
+      WordProvider.class.getProtectionDomain().getCodeSource().getLocation()
+  };
+
+  @Benchmark
+  public Class<?> initialize() throws ClassNotFoundException {
+    // the platform class loader as parent keeps the classes of the application class path out
+    ClassLoader loader = new URLClassLoader(classPath, ClassLoader.getPlatformClassLoader());
+    return Class.forName(WORDS_HOLDER, true, loader);
+  }
+}
@@ -0,0 +1,118 @@
+package org.sosylab;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Replays a script of shell commands, for example a recorded session, as fast as possible. The
+ * script is memory-mapped and the output of the whole run goes through one buffer. The output is
+ * exactly what an interactive session with the same input would show.
+ */
+final class ScriptRunner {
+
+  private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+  private ScriptRunner() {
+  }
+
+  /**
+   * Execute all commands of a script and write the transcript to a stream.
+   *
+   * @param script the file containing one command per line
+   * @param output the stream that receives the transcript
+   * @throws IOException if the script cannot be read or the output cannot be written
+   */
+  static void run(Path script, OutputStream output) throws IOException {
+    PrintStream out = new PrintStream(
+        new BufferedOutputStream(output, OUTPUT_BUFFER_SIZE), false, StandardCharsets.UTF_8);
+    execute(readScript(script), new Shell(out));
+    out.flush();
+    if (out.checkError()) {
+      throw new IOException("Could not write the transcript");
+    }
+  }
+
+  /**
+   * Execute all commands of a script and compare the transcript with an expected one.
+   *
+   * @param script   the file containing one command per line
+   * @param expected the file containing the expected transcript
+   * @param report   the stream that receives the result of the comparison
+   * @return true if the transcript matches
+   * @throws IOException if one of the files cannot be read
+   */
+  static boolean verify(Path script, Path expected, PrintStream report) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream(OUTPUT_BUFFER_SIZE);
+    run(script, output);
+    String actualText = output.toString(StandardCharsets.UTF_8);
+    String expectedText = readScript(expected).toString();
+
+    if (actualText.equals(expectedText)) {
+      report.println("Transcript matches " + expected);
+      return true;
+    }
+
+    //report the first line that differs
+    String[] actualLines = actualText.split("\n", -1);
+    String[] expectedLines = expectedText.split("\n", -1);
+    int line = 0;
+    while (line < actualLines.length && line < expectedLines.length
+        && actualLines[line].equals(expectedLines[line])) {
+      line++;
+    }
+    report.println("Transcript differs from " + expected + " at line " + (line + 1));
+    report.println("expected: " + (line < expectedLines.length ? expectedLines[line] : "<end>"));
+    report.println("actual:   " + (line < actualLines.length ? actualLines[line] : "<end>"));
+    return false;
+  }
+
+  /**
+   * Feed the lines of a script to a shell, like the interactive loop of {@link Shell} does.
+   */
+  private static void execute(CharBuffer script, Shell shell) {
+    int length = script.length();
+    int position = 0;
+
+    while (!shell.isQuit()) {
+      shell.printPrompt();
+      if (position >= length) {
+        break;
+      }
+
+      //find the end of the line, accepting "\n", "\r" and "\r\n" like a BufferedReader
+      int end = position;
+      while (end < length && script.charAt(end) != '\n' && script.charAt(end) != '\r') {
+        end++;
+      }
+      String line = script.subSequence(position, end).toString();
+      if (end < length && script.charAt(end) == '\r' && end + 1 < length
+          && script.charAt(end + 1) == '\n') {
+        end++;
+      }
+      position = end + 1;
+
+      shell.executeCommand(line);
+    }
+  }
+
+  /**
+   * Map a file into memory and decode it.
+   */
+  private static CharBuffer readScript(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() == 0) {
+        return CharBuffer.allocate(0);
+      }
+      return StandardCharsets.UTF_8.decode(
+          channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+}
@@ -1,10 +1,31 @@
 package org.sosylab;
 
+import static java.util.Objects.requireNonNull;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import org.sosylab.model.Game;
+import org.sosylab.model.GameArchive;
+import org.sosylab.model.GameJournal;
+import org.sosylab.model.Guess;
+import org.sosylab.model.Hint;
+import org.sosylab.model.LatencySnapshot;
+import org.sosylab.model.Metric;
+import org.sosylab.model.MultiBoardGame;
+import org.sosylab.model.OpeningBook;
+import org.sosylab.model.OutputSink;
 import org.sosylab.model.Phase;
+import org.sosylab.model.PlayerStatistics;
+import org.sosylab.model.Solver;
+import org.sosylab.model.StatisticsStore;
 
 
 /**
@@ -13,10 +34,54 @@ import org.sosylab.model.Phase;
 public class Shell {
   private static final String PROMPT = "Wordle> ";
 
-  private static final String EMPTY_GUESS = " _  _  _  _  _ ";
+  private static final int NUMBER_OF_HINTS = 5;
+  private static final int MAX_LISTED_CANDIDATES = 20;
+  private static final String HARD_MODE_OPTION = "-hard";
+  private static final String ADVERSARIAL_OPTION = "-adversarial";
+  private static final String BOARDS_OPTION = "-boards";
+  private static final String DEFAULT_PLAYER = "guest";
+  private static final int MAX_PLAYER_NAME_LENGTH = 32;
+  private static final String LATENCY_ARGUMENT = "LATENCY";
+  private static final String PLAYER_STATS_FORMAT = "%-12s %12s %12s";
+  private static final String STATS_HEADER_FORMAT = "%-14s %9s %10s %10s %10s %10s %10s";
+  private static final String STATS_ROW_FORMAT = "%-14s %9d %10.1f %10.1f %10.1f %10.1f %10.1f";
+  private static final double NANOS_PER_MICRO = 1000.0;
+  private final PrintStream out;
+  private final boolean fileCommands;
   private Game game;
+  private MultiBoardGame multiBoardGame;
+  private Solver solver;
+  private String player = DEFAULT_PLAYER;
   private boolean quit;
 
+  /**
+   * Create a shell that writes to the console.
+   */
+  public Shell() {
+    this(System.out);
+  }
+
+  /**
+   * Create a shell that writes to the given stream.
+   *
+   * @param out the stream that receives all output of the shell and its games
+   */
+  public Shell(PrintStream out) {
+    this(out, true);
+  }
+
+  /**
+   * Create a shell that writes to the given stream.
+   *
+   * @param out          the stream that receives all output of the shell and its games
+   * @param fileCommands whether the commands SAVE and LOAD may access files. Shells of remote
+   *                     players must not touch the files of the machine they run on.
+   */
+  public Shell(PrintStream out, boolean fileCommands) {
+    this.out = requireNonNull(out);
+    this.fileCommands = fileCommands;
+  }
+
   /**
    * Start the shell.
    *
@@ -39,7 +104,7 @@ public class Shell {
 
     while (!quit) {
       //output the prompt to console
-      System.out.print(PROMPT);
+      printPrompt();
       //wait for user's input
       String input = stdin.readLine();
 
@@ -48,103 +113,282 @@ public class Shell {
         break;
       }
 
-      //slice the input string on one or more white spaces
-      String[] subStrings = input.trim().split("\\s+");
-
-      //assign the first part(before the first white space) of the input string
-      // to the variable "command"
-      String command = subStrings[0];
-
-      //check what the input command is
-      //call corresponding command method
-      switch (command) {
-        case "NEW":
-          commandNew(subStrings);
-          break;
-        case "G":
-          commandG(subStrings);
-          break;
-        case "FORFEIT":
-          commandForfeit(subStrings);
-          break;
-        case "QUIT":
-          commandQuit(subStrings);
-          break;
-        //if not a valid command, output error message to console
-        default:
-          System.out.println("Error! Command not found!");
-          break;
+      executeCommand(input);
+    }
+  }
+
+  /**
+   * Print the prompt that asks for the next command.
+   */
+  void printPrompt() {
+    out.print(PROMPT);
+  }
+
+  /**
+   * Check whether the QUIT command was entered.
+   *
+   * @return true if the shell should stop
+   */
+  boolean isQuit() {
+    return quit;
+  }
+
+  /**
+   * Execute a single line of input.
+   *
+   * @param input the line entered by the user
+   */
+  void executeCommand(String input) {
+    long start = Metric.start();
+
+    //slice the input string on one or more white spaces
+    String[] subStrings = tokenize(input);
+
+    //assign the first part(before the first white space) of the input string
+    // to the variable "command"
+    String command = subStrings[0];
+
+    //check what the input command is
+    //call corresponding command method
+    switch (command) {
+      case "NEW":
+        commandNew(subStrings);
+        break;
+      case "G":
+        commandG(subStrings);
+        break;
+      case "FORFEIT":
+        commandForfeit(subStrings);
+        break;
+      case "QUIT":
+        commandQuit(subStrings);
+        break;
+      case "HINT":
+        commandHint(subStrings);
+        break;
+      case "CANDIDATES":
+        commandCandidates(subStrings);
+        break;
+      case "SAVE":
+        commandSave(subStrings);
+        break;
+      case "LOAD":
+        commandLoad(subStrings);
+        break;
+      case "STATS":
+        commandStats(subStrings);
+        break;
+      case "PLAYER":
+        commandPlayer(subStrings);
+        break;
+      //if not a valid command, output error message to console
+      default:
+        out.println("Error! Command not found!");
+        break;
+    }
+
+    Metric.SHELL_COMMAND.record(start);
+  }
+
+  /**
+   * Check whether a line is a command that may take long, like the first {@code HINT}, which
+   * computes the feedback of all words. Servers execute such commands outside of the threads
+   * that serve the connections.
+   *
+   * @param input the line entered by the user
+   * @return true if the command may take long
+   */
+  static boolean isLongRunning(String input) {
+    return tokenize(input)[0].equals("HINT");
+  }
+
+  /**
+   * Split a line into words separated by white space, like {@code input.trim().split("\\s+")}
+   * but without a regular expression. A blank line results in a single empty word.
+   *
+   * @param input the line to split
+   * @return the words of the line
+   */
+  static String[] tokenize(String input) {
+    int end = input.length();
+    while (end > 0 && input.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    int start = 0;
+    while (start < end && input.charAt(start) <= ' ') {
+      start++;
+    }
+    if (start == end) {
+      return new String[] {""};
+    }
+
+    //count the words first, so that the array has the right size
+    int count = 1;
+    for (int i = start; i < end; i++) {
+      if (isSeparator(input.charAt(i)) && !isSeparator(input.charAt(i - 1))) {
+        count++;
+      }
+    }
+
+    String[] words = new String[count];
+    int word = 0;
+    int wordStart = start;
+    for (int i = start; i <= end; i++) {
+      if (i == end || isSeparator(input.charAt(i))) {
+        if (wordStart < i) {
+          words[word++] = input.substring(wordStart, i);
+        }
+        wordStart = i + 1;
       }
     }
+    return words;
+  }
+
+  private static boolean isSeparator(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
   }
 
   private void commandNew(String[] subStrings) {
+    //the options "-hard", "-adversarial" and "-boards <n>" come first, the other arguments follow
+    boolean hardMode = false;
+    boolean adversarial = false;
+    String boards = null;
+    int options = 0;
+    while (options + 1 < subStrings.length) {
+      String option = subStrings[options + 1];
+      if (option.equals(HARD_MODE_OPTION)) {
+        hardMode = true;
+      } else if (option.equals(ADVERSARIAL_OPTION)) {
+        adversarial = true;
+      } else if (option.equals(BOARDS_OPTION) && options + 2 < subStrings.length) {
+        boards = subStrings[options + 2];
+        options++;
+      } else {
+        break;
+      }
+      options++;
+    }
+    subStrings = Arrays.copyOfRange(subStrings, options, subStrings.length);
+
     //check whether a game is currently active
     //output error message "game already active" if yes
-    if (game != null && game.getState().getCurrentPhase() == Phase.RUNNING) {
-      System.out.println("Error! Game already active!");
+    if (isGameActive()) {
+      out.println("Error! Game already active!");
+    } else if (boards != null) {
+      newMultiBoardGame(subStrings, boards, hardMode || adversarial);
     } else {
       //check whether input starting with "NEW" has more than one argument
       //output error message "too many arguments" if yes
       if (subStrings.length > 2) {
-        System.out.println("Error! Too many arguments for command");
+        out.println("Error! Too many arguments for command");
       } else { //if no, input has either one or no argument
         //if input has one argument
         if (subStrings.length == 2) {
           //check whether the argument has exactly 5 letters
           //output error message "invalid word to guess" if not
           if (subStrings[1].length() != Game.NUMBER_OF_CHARS_IN_WORD) {
-            System.out.println("Error! Invalid word to guess!");
+            out.println("Error! Invalid word to guess!");
+          } else if (adversarial) {
+            //the adversary chooses the solution itself
+            out.println("Error! An adversarial game has no word to guess!");
           } else {
             //new a game with the valid argument as the solution of the game
-            game = new Game(subStrings[1]);
+            multiBoardGame = null;
+            game = new Game(subStrings[1], OutputSink.of(out), hardMode);
+            GameJournal.getDefault().ifPresent(game::journalTo);
             //output guess area
-            for (int i = 0; i < Game.NUMBER_OF_GUESSES; i++) {
-              System.out.println(EMPTY_GUESS);
-            }
+            game.printBoard();
             //output keyboard area
-            System.out.println(game.getKeyboard());
+            out.println(game.getKeyboard());
           }
         } else {
           //if input has no argument, new a game
-          game = new Game();
+          multiBoardGame = null;
+          game = adversarial
+              ? Game.adversarial(OutputSink.of(out), hardMode)
+              : new Game(OutputSink.of(out), hardMode);
+          GameJournal.getDefault().ifPresent(game::journalTo);
           //output guess area
-          for (int i = 0; i < Game.NUMBER_OF_GUESSES; i++) {
-            System.out.println(EMPTY_GUESS);
-          }
+          game.printBoard();
           //output keyboard area
-          System.out.println(game.getKeyboard());
+          out.println(game.getKeyboard());
         }
       }
     }
   }
 
+  private void newMultiBoardGame(String[] subStrings, String boards, boolean withModes) {
+    int boardCount = parseBoardCount(boards);
+    if (boardCount < 0) {
+      out.println("Error! Invalid number of boards!");
+    } else if (withModes) {
+      out.println("Error! Hard and adversarial mode need a single board!");
+    } else if (subStrings.length > 1) {
+      out.println("Error! A game with several boards has no word to guess!");
+    } else {
+      game = null;
+      multiBoardGame = new MultiBoardGame(boardCount, OutputSink.of(out));
+      multiBoardGame.printBoard();
+    }
+  }
+
+  private static int parseBoardCount(String boards) {
+    try {
+      int boardCount = Integer.parseInt(boards);
+      if (boardCount >= MultiBoardGame.MIN_BOARDS && boardCount <= MultiBoardGame.MAX_BOARDS) {
+        return boardCount;
+      }
+      return -1;
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  private boolean isGameActive() {
+    return game != null && game.getState().getCurrentPhase() == Phase.RUNNING
+        || isMultiBoardGameActive();
+  }
+
+  private boolean isMultiBoardGameActive() {
+    return multiBoardGame != null && multiBoardGame.getPhase() == Phase.RUNNING;
+  }
+
   private void commandG(String[] subStrings) {
     //check whether there is an active game
     //if no active game, print error message "no active game"
-    if (game == null || game.getState().getCurrentPhase() != Phase.RUNNING) {
-      System.out.println("Error! No active game!");
+    if (isMultiBoardGameActive()) {
+      commandMultiBoardG(subStrings);
+    } else if (game == null || game.getState().getCurrentPhase() != Phase.RUNNING) {
+      out.println("Error! No active game!");
     } else {
       //check whether a guess is provided by the user
       //print error message "no guess provided" if not
       if (subStrings.length == 1) {
-        System.out.println("Error! No guess provided!");
+        out.println("Error! No guess provided!");
       } else {
         //check whether more than one argument is passed to G command
         //print error message "too many arguments" if so
         if (subStrings.length > 2) {
-          System.out.println("Error! Too many arguments for command \"GUESS\"");
+          out.println("Error! Too many arguments for command \"GUESS\"");
         } else {
           //check whether the guess has exactly five letters
           //print error message "invalid guess" if not
           if (subStrings[1].length() != Game.NUMBER_OF_CHARS_IN_WORD) {
-            System.out.println("Error! Invalid guess!");
+            out.println("Error! Invalid guess!");
+          } else if (Game.isAllowedWord(subStrings[1])
+              && !game.usesRevealedHints(subStrings[1])) {
+            //in hard mode an allowed word also has to use the hints revealed so far
+            out.println("Error! Guess does not use the revealed hints!");
           } else {
             //command is correct and output the guess
-            game.guessWord(subStrings[1]);
-            //output keyboard area
-            if (!game.isGameWon()) {
-              System.out.println(game.getKeyboard());
+            Optional<Guess> guess = game.guessWord(subStrings[1]);
+            //output keyboard area, a word that is not allowed leaves the game unchanged
+            if (guess.isEmpty() || !game.isGameWon()) {
+              out.println(game.getKeyboard());
+            }
+            //count the game for the player once it is over
+            if (game.getState().getCurrentPhase() != Phase.RUNNING) {
+              recordResult();
             }
 
           }
@@ -155,25 +399,222 @@ public class Shell {
 
   }
 
+  private void commandMultiBoardG(String[] subStrings) {
+    if (subStrings.length == 1) {
+      out.println("Error! No guess provided!");
+    } else if (subStrings.length > 2) {
+      out.println("Error! Too many arguments for command \"GUESS\"");
+    } else if (subStrings[1].length() != Game.NUMBER_OF_CHARS_IN_WORD
+        || !multiBoardGame.guessWord(subStrings[1])) {
+      out.println("Error! Invalid guess!");
+    }
+  }
+
   private void commandForfeit(String[] subStrings) {
     //check whether there is an active game
     //print error message "no active game" if no
-    if (game == null || game.getState().getCurrentPhase() != Phase.RUNNING) {
-      System.out.println("Error! No active game!");
+    if (!isGameActive()) {
+      out.println("Error! No active game!");
     } else {
       //check whether forfeit command has arguments
       //output error message "too many arguments" if yes
       if (subStrings.length > 1) {
-        System.out.println("Error! Too many arguments for command \"FORFEIT\"");
+        out.println("Error! Too many arguments for command \"FORFEIT\"");
+      } else if (isMultiBoardGameActive()) {
+        //forfeit the game, this outputs the boards with the words that were not found
+        multiBoardGame.forfeit();
       } else {
-        //forfeit the game
-        for (int i = 0; i < game.getUserGuesses().size(); i++) {
-          System.out.println(game.getUserGuesses().get(i));
-        }
+        //forfeit the game, this outputs the guesses and the solution
         game.forfeit();
+        recordResult();
+      }
+    }
+
+  }
+
+  private void commandHint(String[] subStrings) {
+    //check whether there is an active game
+    //print error message "no active game" if no
+    if (!fileCommands) {
+      out.println("Error! Files are not available in this session!");
+    } else if (isMultiBoardGameActive()) {
+      out.println("Error! Not available in a game with several boards!");
+    } else if (game == null || game.getState().getCurrentPhase() != Phase.RUNNING) {
+      out.println("Error! No active game!");
+    } else {
+      if (subStrings.length > 1) {
+        out.println("Error! Too many arguments for command \"HINT\"");
+      } else {
+        //follow the opening book as long as the game does
+        Optional<String> bookGuess = OpeningBook.getConfigured()
+            .flatMap(book -> book.nextGuess(game))
+            .filter(game::usesRevealedHints);
+        if (bookGuess.isPresent()) {
+          out.println(bookGuess.get() + " (opening book)");
+        } else {
+          printSolverHints();
+        }
+      }
+    }
+  }
+
+  private void printSolverHints() {
+    //the solver loads the feedback matrix, so it is only created when it is needed
+    if (solver == null) {
+      solver = new Solver(Solver.Objective.ENTROPY);
+    }
+    List<Hint> hints = solver.suggestGuesses(game, NUMBER_OF_HINTS);
+    if (hints.isEmpty()) {
+      out.println("Error! No solution word matches the guesses!");
+    }
+    //output the best guesses with their expected information gain
+    for (Hint hint : hints) {
+      out.println(hint.getWord() + String.format(Locale.ROOT, " %.2f bits", hint.getScore()));
+    }
+  }
+
+  private void commandCandidates(String[] subStrings) {
+    //check whether there is an active game
+    //print error message "no active game" if no
+    if (!fileCommands) {
+      out.println("Error! Files are not available in this session!");
+    } else if (isMultiBoardGameActive()) {
+      out.println("Error! Not available in a game with several boards!");
+    } else if (game == null || game.getState().getCurrentPhase() != Phase.RUNNING) {
+      out.println("Error! No active game!");
+    } else {
+      if (subStrings.length > 1) {
+        out.println("Error! Too many arguments for command \"CANDIDATES\"");
+      } else {
+        //output the number of remaining solution words
+        //list them as well if there are only a few
+        int count = game.candidateCount();
+        out.println(count + " candidates left");
+        if (count <= MAX_LISTED_CANDIDATES) {
+          out.println(String.join(" ", game.remainingCandidates()));
+        }
+      }
+    }
+  }
+
+  private void commandSave(String[] subStrings) {
+    //check whether there is an active game
+    //print error message "no active game" if no
+    if (!fileCommands) {
+      out.println("Error! Files are not available in this session!");
+    } else if (isMultiBoardGameActive()) {
+      out.println("Error! Not available in a game with several boards!");
+    } else if (game == null || game.getState().getCurrentPhase() != Phase.RUNNING) {
+      out.println("Error! No active game!");
+    } else {
+      if (subStrings.length == 1) {
+        out.println("Error! No file provided!");
+      } else if (subStrings.length > 2) {
+        out.println("Error! Too many arguments for command \"SAVE\"");
+      } else {
+        try {
+          GameArchive.save(game, Path.of(subStrings[1]));
+          out.println("Game saved");
+        } catch (IOException | IllegalArgumentException e) {
+          out.println("Error! Could not save the game!");
+        }
       }
     }
+  }
+
+  private void commandLoad(String[] subStrings) {
+    //check whether a game is currently active
+    //output error message "game already active" if yes
+    if (!fileCommands) {
+      out.println("Error! Files are not available in this session!");
+    } else if (isGameActive()) {
+      out.println("Error! Game already active!");
+    } else {
+      if (subStrings.length == 1) {
+        out.println("Error! No file provided!");
+      } else if (subStrings.length > 2) {
+        out.println("Error! Too many arguments for command \"LOAD\"");
+      } else {
+        try {
+          game = GameArchive.load(Path.of(subStrings[1]), OutputSink.of(out));
+          multiBoardGame = null;
+          GameJournal.getDefault().ifPresent(game::journalTo);
+          //output guess area with the restored guesses
+          game.printBoard();
+          //output keyboard area
+          out.println(game.getKeyboard());
+        } catch (IOException | IllegalArgumentException e) {
+          out.println("Error! Could not load the game!");
+        }
+      }
+    }
+  }
+
+  private void recordResult() {
+    boolean won = game.getState().getCurrentPhase() == Phase.WON;
+    StatisticsStore.getDefault().record(player, won, game.getUserGuesses().size());
+  }
+
+  private void commandPlayer(String[] subStrings) {
+    //check whether a game is currently active
+    //the game is counted for the player who started it
+    if (isGameActive()) {
+      out.println("Error! Game already active!");
+    } else if (subStrings.length == 1) {
+      out.println("Error! No player provided!");
+    } else if (subStrings.length > 2) {
+      out.println("Error! Too many arguments for command \"PLAYER\"");
+    } else if (subStrings[1].length() > MAX_PLAYER_NAME_LENGTH) {
+      out.println("Error! Invalid player name!");
+    } else {
+      player = subStrings[1];
+      out.println("Playing as " + player);
+    }
+  }
+
+  private void commandStats(String[] subStrings) {
+    if (subStrings.length > 2) {
+      out.println("Error! Too many arguments for command \"STATS\"");
+    } else if (subStrings.length == 1) {
+      printPlayerStatistics();
+    } else if (!subStrings[1].equals(LATENCY_ARGUMENT)) {
+      out.println("Error! Unknown argument for command \"STATS\"");
+    } else {
+      //output the latencies of the measured operations in microseconds
+      out.println(String.format(Locale.ROOT, STATS_HEADER_FORMAT,
+          "metric", "count", "mean", "p50", "p90", "p99", "max"));
+      for (Metric metric : Metric.values()) {
+        LatencySnapshot snapshot = metric.snapshot();
+        out.println(String.format(Locale.ROOT, STATS_ROW_FORMAT, metric.getDisplayName(),
+            snapshot.getCount(), snapshot.getMean() / NANOS_PER_MICRO,
+            snapshot.getPercentile(50) / NANOS_PER_MICRO,
+            snapshot.getPercentile(90) / NANOS_PER_MICRO,
+            snapshot.getPercentile(99) / NANOS_PER_MICRO,
+            snapshot.getMax() / NANOS_PER_MICRO));
+      }
+      out.println("(all times in microseconds)");
+    }
+  }
+
+  private void printPlayerStatistics() {
+    //both columns come from the same snapshot, so they always agree
+    Map<String, PlayerStatistics> snapshot = StatisticsStore.getDefault().snapshot();
+    PlayerStatistics mine = snapshot.getOrDefault(player, PlayerStatistics.EMPTY);
+    PlayerStatistics all = StatisticsStore.total(snapshot);
+    printStatisticsRow("", player, "all players");
+    printStatisticsRow("played", mine.getGamesPlayed(), all.getGamesPlayed());
+    printStatisticsRow("won %", String.format(Locale.ROOT, "%.1f", mine.getWinPercentage()),
+        String.format(Locale.ROOT, "%.1f", all.getWinPercentage()));
+    printStatisticsRow("streak", mine.getCurrentStreak(), "-");
+    printStatisticsRow("max streak", mine.getMaxStreak(), all.getMaxStreak());
+    for (int guesses = 1; guesses <= Game.NUMBER_OF_GUESSES; guesses++) {
+      printStatisticsRow(guesses + (guesses == 1 ? " guess" : " guesses"),
+          mine.getGamesWonWith(guesses), all.getGamesWonWith(guesses));
+    }
+  }
 
+  private void printStatisticsRow(String label, Object mine, Object all) {
+    out.println(String.format(Locale.ROOT, PLAYER_STATS_FORMAT, label, mine, all));
   }
 
   private void commandQuit(String[] subStrings) {
@@ -182,7 +623,7 @@ public class Shell {
     } else {
       //output error message "too many arguments"
       //if an argument is passed to the command quit
-      System.out.println("Error! Too many arguments for command \"QUIT\".");
+      out.println("Error! Too many arguments for command \"QUIT\".");
     }
 
   }
@@ -0,0 +1,211 @@
+package org.sosylab;
+
+import static java.util.Objects.requireNonNull;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.sosylab.model.Game;
+import org.sosylab.model.GameSnapshot;
+import org.sosylab.model.GameTokenCodec;
+import org.sosylab.model.Guess;
+import org.sosylab.model.OutputSink;
+import org.sosylab.model.Phase;
+
+/**
+ * A stateless HTTP front end. The server keeps no sessions: the complete state of a game is
+ * returned to the client as a token, and the client sends it back with the next request. Any
+ * server that shares the same key can therefore continue any game.
+ *
+ * <p>All endpoints expect a POST request and answer with JSON:
+ * <ul>
+ *   <li>{@code /games/new} starts a game with a random solution word, {@code /games/new?hard=true}
+ *   starts one in hard mode and {@code /games/new?adversarial=true} one whose solution word
+ *   dodges the guesses.</li>
+ *   <li>{@code /games/guess?token=...&word=...} makes a guess.</li>
+ *   <li>{@code /games/forfeit?token=...} forfeits the game.</li>
+ * </ul>
+ */
+public class WordleHttpServer {
+
+  private final HttpServer server;
+  private final GameTokenCodec codec;
+  private final ExecutorService executor;
+
+  /**
+   * Create a server.
+   *
+   * @param address         the address to listen on
+   * @param key             the secret key that protects the game tokens
+   * @param numberOfThreads the number of threads that handle requests
+   * @throws IOException if the server socket cannot be opened
+   */
+  public WordleHttpServer(InetSocketAddress address, byte[] key, int numberOfThreads)
+      throws IOException {
+    codec = new GameTokenCodec(key);
+    executor = Executors.newFixedThreadPool(numberOfThreads);
+    server = HttpServer.create(address, 1024);
+    server.setExecutor(executor);
+    server.createContext("/games/new", exchange -> handle(exchange, this::newGame));
+    server.createContext("/games/guess", exchange -> handle(exchange, this::guess));
+    server.createContext("/games/forfeit", exchange -> handle(exchange, this::forfeit));
+  }
+
+  /**
+   * Start serving requests in the background.
+   */
+  public void start() {
+    server.start();
+  }
+
+  /**
+   * Stop the server.
+   */
+  public void stop() {
+    server.stop(0);
+    executor.shutdown();
+  }
+
+  /**
+   * Handles a request with the query parameters already parsed.
+   */
+  private interface Endpoint {
+    Response apply(Map<String, String> parameters);
+  }
+
+  /**
+   * The status code and JSON body of an answer.
+   */
+  private static final class Response {
+    private final int status;
+    private final String body;
+
+    Response(int status, String body) {
+      this.status = status;
+      this.body = body;
+    }
+  }
+
+  private void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+    try (exchange) {
+      Response response;
+      if (!"POST".equals(exchange.getRequestMethod())) {
+        response = error(405, "Only POST is supported");
+      } else {
+        try {
+          response = endpoint.apply(parseQuery(exchange.getRequestURI().getRawQuery()));
+        } catch (IllegalArgumentException e) {
+          response = error(400, e.getMessage());
+        }
+      }
+
+      byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", "application/json");
+      exchange.sendResponseHeaders(response.status, body.length);
+      exchange.getResponseBody().write(body);
+    }
+  }
+
+  private Response newGame(Map<String, String> parameters) {
+    boolean hardMode = "true".equals(parameters.get("hard"));
+    if ("true".equals(parameters.get("adversarial"))) {
+      return ok(Game.adversarial(OutputSink.DISCARD, hardMode));
+    }
+    return ok(new Game(OutputSink.DISCARD, hardMode));
+  }
+
+  private Response guess(Map<String, String> parameters) {
+    Game game = codec.decode(require(parameters, "token"), OutputSink.DISCARD);
+    if (game.getState().getCurrentPhase() != Phase.RUNNING) {
+      return error(409, "No active game");
+    }
+
+    String word = require(parameters, "word");
+    if (word.length() != Game.NUMBER_OF_CHARS_IN_WORD) {
+      return error(400, "Invalid guess");
+    }
+    if (!game.usesRevealedHints(word)) {
+      return error(400, "Guess does not use the revealed hints");
+    }
+    Optional<Guess> guess = game.guessWord(word);
+    if (guess.isEmpty()) {
+      return error(400, "Unknown word");
+    }
+    return ok(game);
+  }
+
+  private Response forfeit(Map<String, String> parameters) {
+    Game game = codec.decode(require(parameters, "token"), OutputSink.DISCARD);
+    if (game.getState().getCurrentPhase() != Phase.RUNNING) {
+      return error(409, "No active game");
+    }
+    game.forfeit();
+    return ok(game);
+  }
+
+  private static String require(Map<String, String> parameters, String name) {
+    String value = parameters.get(name);
+    if (value == null) {
+      throw new IllegalArgumentException("Missing parameter " + name);
+    }
+    return value;
+  }
+
+  private static Map<String, String> parseQuery(String query) {
+    Map<String, String> parameters = new HashMap<>();
+    if (query == null) {
+      return parameters;
+    }
+    for (String pair : query.split("&")) {
+      int separator = pair.indexOf('=');
+      if (separator > 0) {
+        parameters.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+            URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+      }
+    }
+    return parameters;
+  }
+
+  private Response ok(Game game) {
+    requireNonNull(game);
+    GameSnapshot snapshot = game.getSnapshot();
+    StringBuilder json = new StringBuilder(256);
+    json.append("{\"token\":\"").append(codec.encode(game))
+        .append("\",\"phase\":\"").append(snapshot.getPhase())
+        .append("\",\"guesses\":[");
+
+    List<Guess> guesses = snapshot.getGuesses();
+    for (int i = 0; i < guesses.size(); i++) {
+      Guess guess = guesses.get(i);
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"word\":\"").append(guess.getWord()).append("\",\"results\":[");
+      for (int j = 0; j < Game.NUMBER_OF_CHARS_IN_WORD; j++) {
+        if (j > 0) {
+          json.append(',');
+        }
+        json.append('"').append(guess.resultAt(j)).append('"');
+      }
+      json.append("]}");
+    }
+    json.append(']');
+
+    snapshot.getRevealedSolution()
+        .ifPresent(solution -> json.append(",\"solution\":\"").append(solution).append('"'));
+    return new Response(200, json.append('}').toString());
+  }
+
+  private static Response error(int status, String message) {
+    return new Response(status, "{\"error\":\"" + message + "\"}");
+  }
+}
@@ -1,18 +1,217 @@
 package org.sosylab;
 
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.sosylab.model.DictionaryImage;
+import org.sosylab.model.Game;
+import org.sosylab.model.GameJournal;
+import org.sosylab.model.GuessStrategy;
+import org.sosylab.model.Metric;
+import org.sosylab.model.OpenerLeaderboard;
+import org.sosylab.model.OpeningBook;
+import org.sosylab.model.OutputSink;
+import org.sosylab.model.SimulationReport;
+import org.sosylab.model.Simulator;
+import org.sosylab.model.Solver;
 
 /**
  * Main class of the Wordle project. It starts the application to let the user play the game.
  */
 public class WordleMain {
 
+  private static final String SERVER_OPTION = "--server";
+  private static final String HTTP_OPTION = "--http";
+  private static final String SIMULATE_OPTION = "--simulate";
+  private static final String BATCH_OPTION = "--batch";
+  private static final String COMPILE_DICTIONARY_OPTION = "--compile-dictionary";
+  private static final String BUILD_BOOK_OPTION = "--build-book";
+  private static final String LEADERBOARD_OPTION = "--leaderboard";
+  private static final int LEADERBOARD_SIZE = 20;
+  private static final String REPLAY_OPTION = "--replay";
+  private static final String BOOK_FILE_EXTENSION = ".book";
+  private static final String TOKEN_KEY_VARIABLE = "WORDLE_TOKEN_KEY";
+  private static final int DEFAULT_PORT = 4242;
+  private static final int DEFAULT_HTTP_PORT = 8080;
+
   /**
-   * Launch the Wordle application.
+   * Launch the Wordle application. With {@code --server [port] [threads]} the game is offered to
+   * many players over TCP instead of the console, with {@code --http [port] [threads]} over a
+   * stateless HTTP API. The key for the HTTP game tokens is read from the environment variable
+   * {@value #TOKEN_KEY_VARIABLE}. With {@code --simulate strategy [games] [seed]} a strategy plays
+   * against every solution word, or against a random sample of them, and a JSON report is
+   * printed. With {@code --batch script [expected]} the commands of a script are executed and the
+   * transcript is printed, or compared with an expected transcript. With
+   * {@code --compile-dictionary file} the word lists are compiled into a binary image that is
+   * loaded faster than the text files. With {@code --build-book directory strategy opener...} an
+   * {@link OpeningBook} is built for each opener and saved to the directory. With
+   * {@code --leaderboard file [threads]} every allowed word is rated as an opener, the results are
+   * appended to a CSV file that an interrupted run continues from, and the best openers are
+   * printed. With {@code --replay journal} the games that were not over when a
+   * {@link GameJournal} ended are restored and printed. The interactive modes publish their
+   * {@link Metric}s over JMX.
    */
   public static void main(String[] args) throws IOException {
+    if (args.length > 0 && args[0].equals(SERVER_OPTION)) {
+      int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+      int threads = args.length > 2
+          ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+      Metric.registerMBeans();
+      new WordleServer(new InetSocketAddress(port), threads).run();
+      return;
+    }
+
+    if (args.length > 0 && args[0].equals(HTTP_OPTION)) {
+      int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_HTTP_PORT;
+      int threads = args.length > 2
+          ? Integer.parseInt(args[2]) : 2 * Runtime.getRuntime().availableProcessors();
+      Metric.registerMBeans();
+      new WordleHttpServer(new InetSocketAddress(port), readTokenKey(), threads).start();
+      return;
+    }
+
+    if (args.length > 0 && args[0].equals(SIMULATE_OPTION)) {
+      Simulator simulator = new Simulator(parseStrategy(args.length > 1 ? args[1] : "entropy"));
+      SimulationReport report = args.length > 2
+          ? simulator.playSample(Integer.parseInt(args[2]),
+              args.length > 3 ? Long.parseLong(args[3]) : 0)
+          : simulator.playAll();
+      System.out.println(report.toJson());
+      return;
+    }
+
+    if (args.length > 1 && args[0].equals(BATCH_OPTION)) {
+      if (args.length > 2) {
+        if (!ScriptRunner.verify(Paths.get(args[1]), Paths.get(args[2]), System.out)) {
+          System.exit(1);
+        }
+      } else {
+        ScriptRunner.run(Paths.get(args[1]), new FileOutputStream(FileDescriptor.out));
+      }
+      return;
+    }
+
+    if (args.length > 3 && args[0].equals(BUILD_BOOK_OPTION)) {
+      buildBooks(Paths.get(args[1]), parseObjective(args[2]),
+          Arrays.asList(args).subList(3, args.length));
+      return;
+    }
+
+    if (args.length > 1 && args[0].equals(LEADERBOARD_OPTION)) {
+      int threads = args.length > 2
+          ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+      printLeaderboard(OpenerLeaderboard.compute(Paths.get(args[1]), threads));
+      return;
+    }
+
+    if (args.length > 1 && args[0].equals(REPLAY_OPTION)) {
+      printReplay(Paths.get(args[1]));
+      return;
+    }
+
+    if (args.length > 1 && args[0].equals(COMPILE_DICTIONARY_OPTION)) {
+      DictionaryImage.compile(Paths.get(args[1]));
+      return;
+    }
+
+    Metric.registerMBeans();
     new Shell().run();
 
   }
 
+  private static GuessStrategy parseStrategy(String name) {
+    if (name.equals("first-candidate")) {
+      return GuessStrategy.firstCandidate();
+    }
+    return GuessStrategy.solver(parseObjective(name));
+  }
+
+  private static Solver.Objective parseObjective(String name) {
+    switch (name) {
+      case "entropy":
+        return Solver.Objective.ENTROPY;
+      case "worst-case":
+        return Solver.Objective.WORST_CASE;
+      default:
+        throw new IllegalArgumentException("Unknown strategy: " + name);
+    }
+  }
+
+  /**
+   * Build and save the books for several openers and print how many guesses they need.
+   */
+  private static void buildBooks(Path directory, Solver.Objective objective, List<String> openers)
+      throws IOException {
+    Files.createDirectories(directory);
+    for (OpeningBook book : OpeningBook.build(openers, objective)) {
+      book.save(directory.resolve(book.getOpener() + BOOK_FILE_EXTENSION));
+
+      int[] guesses = book.guessesPerSolution();
+      IntSummaryStatistics statistics = Arrays.stream(guesses).summaryStatistics();
+      long lost = Arrays.stream(guesses).filter(count -> count > Game.NUMBER_OF_GUESSES).count();
+      System.out.println(String.format(Locale.ROOT,
+          "%s: %.4f guesses on average, %d at most, %d lost",
+          book.getOpener(), statistics.getAverage(), statistics.getMax(), lost));
+    }
+  }
+
+  /**
+   * Print the best openers of a leaderboard.
+   */
+  private static void printLeaderboard(List<OpenerLeaderboard.Entry> entries) {
+    System.out.println(String.format(Locale.ROOT, "%4s %-6s %8s %9s %6s %8s",
+        "rank", "opener", "entropy", "expected", "worst", "patterns"));
+    List<OpenerLeaderboard.Entry> ranked = OpenerLeaderboard.rank(entries);
+    for (int i = 0; i < Math.min(LEADERBOARD_SIZE, ranked.size()); i++) {
+      OpenerLeaderboard.Entry entry = ranked.get(i);
+      System.out.println(String.format(Locale.ROOT, "%4d %-6s %8.4f %9.2f %6d %8d", i + 1,
+          entry.getOpener(), entry.getEntropy(), entry.getExpectedRemaining(),
+          entry.getWorstCase(), entry.getPatterns()));
+    }
+  }
+
+  /**
+   * Restore the games of a journal that were not over and print their boards.
+   */
+  private static void printReplay(Path journal) throws IOException {
+    long start = System.nanoTime();
+    Map<Long, Game> games = GameJournal.replay(journal, OutputSink.of(System.out));
+    long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    System.out.println(String.format(Locale.ROOT, "Replayed %d events in %d ms, %d games running",
+        GameJournal.countEvents(journal), millis, games.size()));
+    for (Map.Entry<Long, Game> entry : games.entrySet()) {
+      Game game = entry.getValue();
+      System.out.println("Game " + entry.getKey() + (game.isHardMode() ? " (hard mode)" : "")
+          + (game.isAdversarial() ? " (adversarial)" : ""));
+      game.printBoard();
+    }
+  }
+
+  /**
+   * Read the key for the HTTP game tokens. Without a configured key a random one is used, which
+   * only works as long as there is a single server.
+   */
+  private static byte[] readTokenKey() {
+    String key = System.getenv(TOKEN_KEY_VARIABLE);
+    if (key != null && !key.isEmpty()) {
+      return key.getBytes(StandardCharsets.UTF_8);
+    }
+    System.err.println("Warning: " + TOKEN_KEY_VARIABLE + " is not set, using a random key");
+    byte[] random = new byte[32];
+    new SecureRandom().nextBytes(random);
+    return random;
+  }
+
 }
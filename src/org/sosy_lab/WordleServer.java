@@ -0,0 +1,330 @@
+package org.sosylab;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A TCP server that lets many players play at the same time. Every connection gets its own
+ * {@link Shell} and speaks the same line based protocol as the console, except that games cannot
+ * be saved to or loaded from the files of the server. Connections are distributed over a small
+ * number of event loops, each of which serves all of its connections from a single thread using
+ * non-blocking I/O. Commands that may take long are executed by worker
+ * threads, so that they do not stall the other connections of their event loop.
+ */
+public class WordleServer {
+
+  /**
+   * The longest line a client may send, in bytes. Longer lines are discarded.
+   */
+  private static final int MAX_LINE_LENGTH = 1024;
+  private static final int READ_BUFFER_SIZE = 8192;
+
+  private final InetSocketAddress address;
+  private final EventLoop[] eventLoops;
+
+  /**
+   * Create a server.
+   *
+   * @param address           the address to listen on
+   * @param numberOfEventLoops the number of threads that serve the connections
+   */
+  public WordleServer(InetSocketAddress address, int numberOfEventLoops) {
+    if (numberOfEventLoops <= 0) {
+      throw new IllegalArgumentException("The server needs at least one event loop");
+    }
+    this.address = address;
+    this.eventLoops = new EventLoop[numberOfEventLoops];
+  }
+
+  /**
+   * Accept connections until the thread is interrupted.
+   *
+   * @throws IOException if the server socket cannot be opened
+   */
+  public void run() throws IOException {
+    ExecutorService workers = Executors.newFixedThreadPool(eventLoops.length, runnable -> {
+      Thread thread = new Thread(runnable, "wordle-worker");
+      thread.setDaemon(true);
+      return thread;
+    });
+    for (int i = 0; i < eventLoops.length; i++) {
+      eventLoops[i] = new EventLoop(Selector.open(), workers);
+      Thread thread = new Thread(eventLoops[i], "wordle-event-loop-" + i);
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    try (ServerSocketChannel server = ServerSocketChannel.open()) {
+      server.bind(address, 1024);
+      int next = 0;
+      while (!Thread.currentThread().isInterrupted()) {
+        SocketChannel channel = server.accept();
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        eventLoops[next].register(channel);
+        next = (next + 1) % eventLoops.length;
+      }
+    }
+  }
+
+  /**
+   * Serves a set of connections from one thread.
+   */
+  private static final class EventLoop implements Runnable {
+
+    private final Selector selector;
+    private final ExecutorService workers;
+    private final Queue<SocketChannel> newChannels = new ConcurrentLinkedQueue<>();
+    private final Queue<Session> resumedSessions = new ConcurrentLinkedQueue<>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+
+    EventLoop(Selector selector, ExecutorService workers) {
+      this.selector = selector;
+      this.workers = workers;
+    }
+
+    /**
+     * Hand a new connection over to this event loop.
+     */
+    void register(SocketChannel channel) {
+      newChannels.add(channel);
+      selector.wakeup();
+    }
+
+    /**
+     * Hand a session back to this event loop once a worker executed its command.
+     */
+    void resume(Session session) {
+      resumedSessions.add(session);
+      selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (selector.isOpen()) {
+          selector.select();
+          registerNewChannels();
+          resumeSessions();
+
+          Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+          while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            Session session = (Session) key.attachment();
+            try {
+              if (key.isValid() && key.isReadable()) {
+                session.read(readBuffer);
+              }
+              if (key.isValid() && key.isWritable()) {
+                session.write();
+              }
+            } catch (IOException | RuntimeException e) {
+              // the client went away or its command failed, only this connection is affected
+              session.close();
+            }
+          }
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    private void registerNewChannels() throws IOException {
+      SocketChannel channel;
+      while ((channel = newChannels.poll()) != null) {
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        Session session = new Session(channel, key, this);
+        key.attach(session);
+        session.start();
+      }
+    }
+
+    private void resumeSessions() {
+      Session session;
+      while ((session = resumedSessions.poll()) != null) {
+        if (!session.key.isValid()) {
+          continue;
+        }
+        try {
+          session.resume();
+        } catch (IOException | RuntimeException e) {
+          session.close();
+        }
+      }
+    }
+  }
+
+  /**
+   * The state of a single connection: its shell, the partially received line and the output that
+   * has not been sent yet.
+   */
+  private static final class Session {
+
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final EventLoop eventLoop;
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final Shell shell =
+        new Shell(new PrintStream(output, false, StandardCharsets.UTF_8), false);
+    private final byte[] line = new byte[MAX_LINE_LENGTH];
+    private int lineLength;
+    private final Queue<ByteBuffer> pendingWrites = new ArrayDeque<>();
+    private boolean lineTooLong;
+
+    /**
+     * Whether a worker executes a command of this session. Meanwhile the session neither reads
+     * nor processes input, and the rest of the input already read is kept in pendingInput.
+     */
+    private boolean busy;
+    private boolean commandFailed;
+    private ByteBuffer pendingInput;
+
+    Session(SocketChannel channel, SelectionKey key, EventLoop eventLoop) {
+      this.channel = channel;
+      this.key = key;
+      this.eventLoop = eventLoop;
+    }
+
+    /**
+     * Greet the client with the prompt.
+     */
+    void start() throws IOException {
+      shell.printPrompt();
+      flush();
+    }
+
+    /**
+     * Read the available bytes and execute every complete line.
+     */
+    void read(ByteBuffer buffer) throws IOException {
+      buffer.clear();
+      int count = channel.read(buffer);
+      if (count < 0) {
+        close();
+        return;
+      }
+      buffer.flip();
+      process(buffer);
+      flush();
+    }
+
+    /**
+     * Execute every complete line of the input. A command that may take long is handed to a
+     * worker, and the rest of the input is kept until the worker is done.
+     */
+    private void process(ByteBuffer input) {
+      while (input.hasRemaining() && !shell.isQuit()) {
+        byte b = input.get();
+        if (b == '\n') {
+          //the line is decoded as a whole, so that characters of several bytes stay intact
+          String command =
+              lineTooLong ? null : new String(line, 0, lineLength, StandardCharsets.UTF_8);
+          lineLength = 0;
+          lineTooLong = false;
+          if (command != null && Shell.isLongRunning(command)) {
+            pendingInput = ByteBuffer.allocate(input.remaining()).put(input).flip();
+            busy = true;
+            eventLoop.workers.execute(() -> {
+              try {
+                shell.executeCommand(command);
+              } catch (RuntimeException e) {
+                commandFailed = true;
+              }
+              eventLoop.resume(this);
+            });
+            return;
+          }
+          if (command != null) {
+            shell.executeCommand(command);
+          }
+          if (!shell.isQuit()) {
+            shell.printPrompt();
+          }
+        } else if (b != '\r') {
+          if (lineLength < MAX_LINE_LENGTH) {
+            line[lineLength++] = b;
+          } else {
+            lineTooLong = true;
+          }
+        }
+      }
+    }
+
+    /**
+     * Continue after a worker executed a command: send its output and execute the rest of the
+     * input.
+     */
+    void resume() throws IOException {
+      if (commandFailed) {
+        close();
+        return;
+      }
+      busy = false;
+      if (!shell.isQuit()) {
+        shell.printPrompt();
+      }
+      ByteBuffer input = pendingInput;
+      pendingInput = null;
+      process(input);
+      flush();
+    }
+
+    /**
+     * Queue the output of the shell and send as much of it as the socket accepts.
+     */
+    private void flush() throws IOException {
+      if (output.size() > 0) {
+        pendingWrites.add(ByteBuffer.wrap(output.toByteArray()));
+        output.reset();
+      }
+      write();
+    }
+
+    /**
+     * Send pending output. While output is pending, no further input is read, so a client that
+     * does not read its responses cannot make the server buffer without limit.
+     */
+    void write() throws IOException {
+      ByteBuffer buffer;
+      while ((buffer = pendingWrites.peek()) != null) {
+        channel.write(buffer);
+        if (buffer.hasRemaining()) {
+          key.interestOps(SelectionKey.OP_WRITE);
+          return;
+        }
+        pendingWrites.remove();
+      }
+
+      if (shell.isQuit()) {
+        close();
+      } else {
+        key.interestOps(busy ? 0 : SelectionKey.OP_READ);
+      }
+    }
+
+    void close() {
+      key.cancel();
+      try {
+        channel.close();
+      } catch (IOException e) {
+        // the connection is gone either way
+      }
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package org.sosylab.model;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Renders the board of a game. Rows of guesses are rendered once when the guess is made and kept,
+ * so that each frame only copies them into a reused buffer before it is handed to the sink as a
+ * whole.
+ */
+class BoardRenderer {
+
+  private static final String LINE_SEPARATOR = System.lineSeparator();
+  private static final String EMPTY_ROW = " _  _  _  _  _ ";
+
+  /**
+   * The length of a rendered guess without the leading space and the line separator.
+   */
+  private static final int CELLS_LENGTH = 3 * Game.NUMBER_OF_CHARS_IN_WORD;
+  private static final int ROW_LENGTH = 1 + CELLS_LENGTH + LINE_SEPARATOR.length();
+
+  private final OutputSink sink;
+  private final StringBuilder rows;
+  private final StringBuilder frame;
+  private int rowCount;
+
+  /**
+   * Create a renderer for an empty board.
+   *
+   * @param sink the sink that receives the frames
+   */
+  BoardRenderer(OutputSink sink) {
+    this.sink = requireNonNull(sink);
+    int frameSize = (Game.NUMBER_OF_GUESSES + 2) * ROW_LENGTH;
+    rows = new StringBuilder(frameSize);
+    frame = new StringBuilder(frameSize);
+  }
+
+  /**
+   * Append the cells of a guess, where correct letters are shown in brackets and contained letters
+   * in parentheses.
+   *
+   * @param builder the builder to append to
+   * @param guess   the guess to render
+   * @return the builder
+   */
+  static StringBuilder appendCells(StringBuilder builder, Guess guess) {
+    for (int i = 0; i < Game.NUMBER_OF_CHARS_IN_WORD; i++) {
+      GuessResult result = guess.resultAt(i);
+      if (result == GuessResult.CORRECT) {
+        builder.append('[').append(guess.charAt(i)).append(']');
+      } else if (result == GuessResult.CONTAINED) {
+        builder.append('(').append(guess.charAt(i)).append(')');
+      } else {
+        builder.append(' ').append(guess.charAt(i)).append(' ');
+      }
+    }
+    return builder;
+  }
+
+  /**
+   * Append the cells of a guess given as its letters and packed evaluation, in the same way as
+   * {@link #appendCells(StringBuilder, Guess)}.
+   *
+   * @param builder the builder to append to
+   * @param letters the letters of the guess
+   * @param pattern the evaluation of the guess, see {@link FeedbackMatrix}
+   * @return the builder
+   */
+  static StringBuilder appendCells(StringBuilder builder, char[] letters, int pattern) {
+    for (int i = 0; i < Game.NUMBER_OF_CHARS_IN_WORD; i++) {
+      int result = pattern % 3;
+      pattern /= 3;
+      if (result == GuessResult.CORRECT.ordinal()) {
+        builder.append('[').append(letters[i]).append(']');
+      } else if (result == GuessResult.CONTAINED.ordinal()) {
+        builder.append('(').append(letters[i]).append(')');
+      } else {
+        builder.append(' ').append(letters[i]).append(' ');
+      }
+    }
+    return builder;
+  }
+
+  /**
+   * Render a new guess and keep it for all following frames.
+   *
+   * @param guess the guess that was made
+   */
+  void addGuess(Guess guess) {
+    if (sink == OutputSink.DISCARD) {
+      return;
+    }
+    appendCells(rows.append(' '), guess).append(LINE_SEPARATOR);
+    rowCount++;
+  }
+
+  /**
+   * Output the board: all guesses, the given number of empty rows and, if the game was lost, the
+   * solution.
+   *
+   * @param emptyRows the number of empty rows below the guesses
+   * @param solution  the revealed solution, or {@code null} to not show it
+   */
+  void renderBoard(int emptyRows, Guess solution) {
+    if (sink == OutputSink.DISCARD) {
+      return;
+    }
+    long start = Metric.start();
+    frame.setLength(0);
+    frame.append(rows);
+    for (int i = 0; i < emptyRows; i++) {
+      frame.append(EMPTY_ROW).append(LINE_SEPARATOR);
+    }
+    if (solution != null) {
+      appendCells(frame, solution).append(LINE_SEPARATOR);
+    }
+    sink.write(frame);
+    Metric.RENDER_BOARD.record(start);
+  }
+
+  /**
+   * Output the guesses of a forfeited game without the indentation of the board, followed by the
+   * solution.
+   *
+   * @param solution the revealed solution
+   */
+  void renderForfeit(Guess solution) {
+    if (sink == OutputSink.DISCARD) {
+      return;
+    }
+    long start = Metric.start();
+    frame.setLength(0);
+    for (int i = 0; i < rowCount; i++) {
+      int offset = i * ROW_LENGTH + 1;
+      frame.append(rows, offset, offset + CELLS_LENGTH).append(LINE_SEPARATOR);
+    }
+    appendCells(frame, solution).append(LINE_SEPARATOR);
+    sink.write(frame);
+    Metric.RENDER_BOARD.record(start);
+  }
+}
@@ -0,0 +1,136 @@
+package org.sosylab.model;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Scores one guess against many solution words at once. The solution words are stored as
+ * columns, one array per position holding that letter of every word, so the letters compared
+ * for a position lie next to each other in memory.
+ *
+ * <p>This class scores the words one after the other. When the application is built with Maven,
+ * a subclass that uses the Vector API of {@code jdk.incubator.vector} to score many words per
+ * instruction is included. It is used by {@link #of(Dictionary)} if the JVM is started with
+ * {@code --add-modules jdk.incubator.vector} and the system property {@value #VECTOR_PROPERTY}
+ * is not {@code false}. Both give the same results as {@link SolutionWord#score(char[], char[])}.
+ */
+class BulkScorer {
+
+  private static final String VECTOR_PROPERTY = "wordle.vector";
+  private static final String VECTOR_MODULE = "jdk.incubator.vector";
+  private static final String VECTOR_SCORER_CLASS = "org.sosylab.model.VectorBulkScorer";
+
+  static final int CORRECT = GuessResult.CORRECT.ordinal();
+  static final int CONTAINED = GuessResult.CONTAINED.ordinal();
+
+  /**
+   * The letters of all solution words by position, each as its distance from {@code 'a'}.
+   */
+  final byte[][] columns;
+  final int size;
+
+  /**
+   * Create a scorer for the given solution words.
+   *
+   * @param solutions the solution words
+   */
+  BulkScorer(Dictionary solutions) {
+    size = solutions.size();
+    columns = new byte[Game.NUMBER_OF_CHARS_IN_WORD][size];
+    char[] letters = new char[Game.NUMBER_OF_CHARS_IN_WORD];
+    for (int s = 0; s < size; s++) {
+      solutions.getLetters(s, letters);
+      for (int i = 0; i < Game.NUMBER_OF_CHARS_IN_WORD; i++) {
+        columns[i][s] = (byte) (letters[i] - 'a');
+      }
+    }
+  }
+
+  /**
+   * Create the fastest scorer available in this JVM.
+   *
+   * @param solutions the solution words
+   * @return the scorer
+   */
+  static BulkScorer of(Dictionary solutions) {
+    requireNonNull(solutions);
+    if (!"false".equals(System.getProperty(VECTOR_PROPERTY))
+        && ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+      try {
+        //the vector scorer is looked up by name, so that this class compiles without the module
+        return (BulkScorer) Class.forName(VECTOR_SCORER_CLASS)
+            .getDeclaredConstructor(Dictionary.class).newInstance(solutions);
+      } catch (ReflectiveOperationException | LinkageError e) {
+        // not built with the vector scorer, the words are scored one by one instead
+      }
+    }
+    return new BulkScorer(solutions);
+  }
+
+  /**
+   * Get the number of solution words.
+   *
+   * @return the number of words
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Score a guess against every solution word.
+   *
+   * @param guess    the letters of the guess in lower case
+   * @param patterns the array that receives the pattern against each solution word, see
+   *                 {@link FeedbackMatrix}, in the order of the dictionary
+   * @param offset   the index in {@code patterns} of the pattern against the first word
+   */
+  void score(char[] guess, byte[] patterns, int offset) {
+    Game.throwErrorIfInvalidWordSize(guess.length);
+    scoreRange(guess, patterns, offset, 0, size);
+  }
+
+  /**
+   * Score a guess against a range of the solution words one after the other, exactly like
+   * {@link SolutionWord#score(char[], char[])}.
+   *
+   * @param guess    the letters of the guess in lower case
+   * @param patterns the array that receives the patterns
+   * @param offset   the index in {@code patterns} of the pattern against the first word
+   * @param from     the first word to score
+   * @param to       the word after the last word to score
+   */
+  final void scoreRange(char[] guess, byte[] patterns, int offset, int from, int to) {
+    byte[] guessLetters = new byte[Game.NUMBER_OF_CHARS_IN_WORD];
+    for (int i = 0; i < Game.NUMBER_OF_CHARS_IN_WORD; i++) {
+      guessLetters[i] = (byte) (guess[i] - 'a');
+    }
+    byte[] solution = new byte[Game.NUMBER_OF_CHARS_IN_WORD];
+
+    for (int s = from; s < to; s++) {
+      int pattern = 0;
+      int unusedLetters = 0;
+      for (int i = 0; i < Game.NUMBER_OF_CHARS_IN_WORD; i++) {
+        solution[i] = columns[i][s];
+        if (solution[i] == guessLetters[i]) {
+          pattern += CORRECT * SolutionWord.PATTERN_WEIGHTS[i];
+        } else {
+          unusedLetters |= 1 << i;
+        }
+      }
+
+      int openPositions = unusedLetters;
+      for (int i = 0; i < Game.NUMBER_OF_CHARS_IN_WORD; i++) {
+        if ((openPositions & (1 << i)) == 0) {
+          continue;
+        }
+        for (int j = 0; j < Game.NUMBER_OF_CHARS_IN_WORD; j++) {
+          if ((unusedLetters & (1 << j)) != 0 && solution[j] == guessLetters[i]) {
+            pattern += CONTAINED * SolutionWord.PATTERN_WEIGHTS[i];
+            unusedLetters &= ~(1 << j);
+            break;
+          }
+        }
+      }
+      patterns[offset + s] = (byte) pattern;
+    }
+  }
+}
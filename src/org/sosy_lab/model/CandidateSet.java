@@ -0,0 +1,154 @@
+package org.sosylab.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The solution words that are still consistent with all guesses of a game. The set is stored as a
+ * bit set over the ids of the solution dictionary and only ever shrinks.
+ */
+class CandidateSet {
+
+  private final Dictionary solutions;
+  private final BitSet candidates;
+  private final char[] letters;
+  private int count;
+
+  /**
+   * The pattern of every candidate and the size of every partition, only needed for adversarial
+   * games and therefore created on first use.
+   */
+  private byte[] patterns;
+  private int[] partitionSizes;
+
+  /**
+   * Create a set that contains all solution words.
+   *
+   * @param solutions the dictionary of solution words
+   */
+  CandidateSet(Dictionary solutions) {
+    this.solutions = requireNonNull(solutions);
+    candidates = new BitSet(solutions.size());
+    candidates.set(0, solutions.size());
+    letters = new char[Game.NUMBER_OF_CHARS_IN_WORD];
+    count = solutions.size();
+  }
+
+  /**
+   * Remove all candidates that would not have produced the given evaluation of a guess. Only the
+   * remaining candidates are visited.
+   *
+   * @param guess   the letters of the guess in lower case
+   * @param pattern the evaluation of the guess packed as a pattern, see {@link FeedbackMatrix}
+   */
+  void narrow(char[] guess, int pattern) {
+    for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+      solutions.getLetters(id, letters);
+      if (SolutionWord.score(guess, letters) != pattern) {
+        candidates.clear(id);
+        count--;
+      }
+    }
+  }
+
+  /**
+   * Partition the candidates by the evaluation a guess would get against them and keep only the
+   * largest part, so that the guess reveals as little as possible. Among parts of the same size,
+   * the one whose evaluation shows fewer hints is kept. Only the remaining candidates are visited,
+   * and no objects are created per candidate.
+   *
+   * @param guess the letters of the guess in lower case
+   * @return the evaluation of the guess against the kept candidates, packed as a pattern
+   */
+  int keepLargestPartition(char[] guess) {
+    if (patterns == null) {
+      patterns = new byte[solutions.size()];
+      partitionSizes = new int[FeedbackMatrix.PATTERN_COUNT];
+    }
+    Arrays.fill(partitionSizes, 0);
+    for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+      solutions.getLetters(id, letters);
+      int pattern = SolutionWord.score(guess, letters);
+      patterns[id] = (byte) pattern;
+      partitionSizes[pattern]++;
+    }
+
+    int kept = 0;
+    for (int pattern = 1; pattern < FeedbackMatrix.PATTERN_COUNT; pattern++) {
+      if (partitionSizes[pattern] > partitionSizes[kept]
+          || partitionSizes[pattern] == partitionSizes[kept]
+          && hintsOf(pattern) < hintsOf(kept)) {
+        kept = pattern;
+      }
+    }
+
+    for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+      if ((patterns[id] & 0xFF) != kept) {
+        candidates.clear(id);
+        count--;
+      }
+    }
+    return kept;
+  }
+
+  /**
+   * Weigh the hints of a pattern: two for every correct letter and one for every contained one.
+   */
+  private static int hintsOf(int pattern) {
+    int hints = 0;
+    for (int i = 0; i < Game.NUMBER_OF_CHARS_IN_WORD; i++) {
+      hints += pattern % 3;
+      pattern /= 3;
+    }
+    return hints;
+  }
+
+  /**
+   * Get the id of the first remaining candidate.
+   *
+   * @return the smallest id, or a negative number if no candidate remains
+   */
+  int first() {
+    return candidates.nextSetBit(0);
+  }
+
+  /**
+   * Get the number of remaining candidates.
+   *
+   * @return the number of candidates
+   */
+  int size() {
+    return count;
+  }
+
+  /**
+   * Get the ids of the remaining candidates.
+   *
+   * @return the ids in ascending order
+   */
+  int[] toIds() {
+    int[] ids = new int[count];
+    int index = 0;
+    for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+      ids[index++] = id;
+    }
+    return ids;
+  }
+
+  /**
+   * Get the remaining candidates as words.
+   *
+   * @return the words in alphabetical order
+   */
+  List<String> toWords() {
+    List<String> words = new ArrayList<>(count);
+    for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+      words.add(solutions.getWord(id));
+    }
+    return words;
+  }
+}
@@ -20,6 +20,15 @@ class Countdown {
     counter = start;
   }
 
+  /**
+   * Initialize a countdown with the current value of another one.
+   *
+   * @param countdown the countdown whose value is overtaken.
+   */
+  Countdown(Countdown countdown) {
+    counter = countdown.counter;
+  }
+
   /**
    * Decrement the countdown.
    */
@@ -0,0 +1,249 @@
+package org.sosylab.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * An immutable, sorted set of words. Each word is packed into a single int with five bits per
+ * letter, where the first letter takes the most significant bits. This way the numeric order of
+ * the packed words is their alphabetical order and the position of a word in the sorted array can
+ * be used as a stable id.
+ */
+final class Dictionary {
+
+  /**
+   * The value returned for words that are not part of the dictionary.
+   */
+  static final int NOT_FOUND = -1;
+
+  private static final int BITS_PER_LETTER = 5;
+  private static final int LETTER_MASK = (1 << BITS_PER_LETTER) - 1;
+
+  private final int[] packedWords;
+
+  /**
+   * Create a dictionary from already packed words.
+   *
+   * @param packedWords the packed words, sorted and without duplicates
+   */
+  private Dictionary(int[] packedWords) {
+    this.packedWords = packedWords;
+  }
+
+  /**
+   * Create a dictionary from a collection of words.
+   *
+   * @param words the words, each consisting of {@link Game#NUMBER_OF_CHARS_IN_WORD} letters
+   * @return the dictionary containing all words
+   */
+  static Dictionary of(Collection<String> words) {
+    requireNonNull(words);
+
+    int[] packed = new int[words.size()];
+    int count = 0;
+    for (String word : words) {
+      int value = pack(word);
+      if (value == NOT_FOUND) {
+        throw new IllegalArgumentException("Not a valid word: " + word);
+      }
+      packed[count++] = value;
+    }
+    return ofPacked(packed);
+  }
+
+  /**
+   * Create a dictionary from packed words. Duplicates are removed.
+   *
+   * @param packedWords the packed words in arbitrary order
+   * @return the dictionary containing all words
+   */
+  static Dictionary ofPacked(int[] packedWords) {
+    int[] sorted = Arrays.copyOf(packedWords, packedWords.length);
+    Arrays.sort(sorted);
+
+    int unique = 0;
+    for (int i = 0; i < sorted.length; i++) {
+      if (unique == 0 || sorted[unique - 1] != sorted[i]) {
+        sorted[unique++] = sorted[i];
+      }
+    }
+    return new Dictionary(Arrays.copyOf(sorted, unique));
+  }
+
+  /**
+   * Create a dictionary from packed words that are already sorted, without sorting them again.
+   *
+   * @param packedWords the packed words in strictly ascending order
+   * @return the dictionary containing all words
+   * @throws IllegalArgumentException if the words are not in strictly ascending order
+   */
+  static Dictionary ofSorted(int[] packedWords) {
+    for (int i = 0; i < packedWords.length; i++) {
+      if (packedWords[i] < 0 || i > 0 && packedWords[i - 1] >= packedWords[i]) {
+        throw new IllegalArgumentException("The words are not sorted");
+      }
+    }
+    return new Dictionary(Arrays.copyOf(packedWords, packedWords.length));
+  }
+
+  /**
+   * Pack a word into an int. Upper case letters are treated like lower case letters.
+   *
+   * @param word the word to pack
+   * @return the packed word, or {@link #NOT_FOUND} if it does not consist of exactly
+   *     {@link Game#NUMBER_OF_CHARS_IN_WORD} letters
+   */
+  static int pack(CharSequence word) {
+    if (word.length() != Game.NUMBER_OF_CHARS_IN_WORD) {
+      return NOT_FOUND;
+    }
+
+    int packed = 0;
+    for (int i = 0; i < Game.NUMBER_OF_CHARS_IN_WORD; i++) {
+      int letter = letterValue(word.charAt(i));
+      if (letter == NOT_FOUND) {
+        return NOT_FOUND;
+      }
+      packed = (packed << BITS_PER_LETTER) | letter;
+    }
+    return packed;
+  }
+
+  /**
+   * Pack a word into an int. Upper case letters are treated like lower case letters.
+   *
+   * @param word the letters of the word to pack
+   * @return the packed word, or {@link #NOT_FOUND} if it does not consist of exactly
+   *     {@link Game#NUMBER_OF_CHARS_IN_WORD} letters
+   */
+  static int pack(char[] word) {
+    if (word.length != Game.NUMBER_OF_CHARS_IN_WORD) {
+      return NOT_FOUND;
+    }
+
+    int packed = 0;
+    for (int i = 0; i < Game.NUMBER_OF_CHARS_IN_WORD; i++) {
+      int letter = letterValue(word[i]);
+      if (letter == NOT_FOUND) {
+        return NOT_FOUND;
+      }
+      packed = (packed << BITS_PER_LETTER) | letter;
+    }
+    return packed;
+  }
+
+  /**
+   * Map a letter to its value in a packed word. The value 0 is not used, so that every packed word
+   * is distinct from zero.
+   */
+  private static int letterValue(char c) {
+    if (c >= 'a' && c <= 'z') {
+      return c - 'a' + 1;
+    }
+    if (c >= 'A' && c <= 'Z') {
+      return c - 'A' + 1;
+    }
+    return NOT_FOUND;
+  }
+
+  /**
+   * Write the letters of a packed word in lower case into an array.
+   *
+   * @param packed      the packed word
+   * @param destination the array that receives the letters
+   */
+  static void unpack(int packed, char[] destination) {
+    Game.throwErrorIfInvalidWordSize(destination.length);
+    for (int i = Game.NUMBER_OF_CHARS_IN_WORD - 1; i >= 0; i--) {
+      destination[i] = (char) ('a' + (packed & LETTER_MASK) - 1);
+      packed >>>= BITS_PER_LETTER;
+    }
+  }
+
+  /**
+   * Get the number of words.
+   *
+   * @return the size of the dictionary
+   */
+  int size() {
+    return packedWords.length;
+  }
+
+  /**
+   * Get the id of a packed word.
+   *
+   * @param packed the packed word
+   * @return the id, or {@link #NOT_FOUND} if the word is not part of the dictionary
+   */
+  int indexOfPacked(int packed) {
+    if (packed == NOT_FOUND) {
+      return NOT_FOUND;
+    }
+    int index = Arrays.binarySearch(packedWords, packed);
+    return index < 0 ? NOT_FOUND : index;
+  }
+
+  /**
+   * Get the id of a word.
+   *
+   * @param word the word, the case of the letters does not matter
+   * @return the id, or {@link #NOT_FOUND} if the word is not part of the dictionary
+   */
+  int indexOf(CharSequence word) {
+    return indexOfPacked(pack(word));
+  }
+
+  /**
+   * Get the id of a word.
+   *
+   * @param word the letters of the word, the case of the letters does not matter
+   * @return the id, or {@link #NOT_FOUND} if the word is not part of the dictionary
+   */
+  int indexOf(char[] word) {
+    return indexOfPacked(pack(word));
+  }
+
+  /**
+   * Check whether a word is part of the dictionary.
+   *
+   * @param word the word, the case of the letters does not matter
+   * @return true if the word is contained
+   */
+  boolean contains(CharSequence word) {
+    return indexOf(word) != NOT_FOUND;
+  }
+
+  /**
+   * Get the packed word with a given id.
+   *
+   * @param id the id of the word
+   * @return the packed word
+   */
+  int getPacked(int id) {
+    return packedWords[id];
+  }
+
+  /**
+   * Write the letters of the word with a given id into an array.
+   *
+   * @param id          the id of the word
+   * @param destination the array that receives the letters
+   */
+  void getLetters(int id, char[] destination) {
+    unpack(packedWords[id], destination);
+  }
+
+  /**
+   * Get the word with a given id.
+   *
+   * @param id the id of the word
+   * @return the word in lower case
+   */
+  String getWord(int id) {
+    char[] letters = new char[Game.NUMBER_OF_CHARS_IN_WORD];
+    getLetters(id, letters);
+    return new String(letters);
+  }
+}
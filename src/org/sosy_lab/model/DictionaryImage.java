@@ -0,0 +1,259 @@
+package org.sosylab.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * A precompiled binary image of the word lists, so that they do not have to be parsed at startup.
+ *
+ * <p>The image starts with a header containing a magic number, the format version, the sizes and
+ * the CRC-32 checksums of the text files it was compiled from and the sizes of both dictionaries.
+ * The packed words of the solution dictionary and of the dictionary of allowed words follow, each
+ * in ascending order. A checksum of everything before it ends the image.
+ *
+ * <p>The image is compiled during the build with {@link #compile(Path)} from the same text files
+ * that are shipped with it, and shipped as the resource {@value #RESOURCE_NAME}. A different image
+ * can be used with the system property {@value #IMAGE_FILE_PROPERTY}. At startup, the image built
+ * into the same jar file or directory as the text files is only compared with their sizes, which
+ * are known without reading them, so that loading the words reads nothing but the image. Any other
+ * image is compared with the checksums of the text files as well.
+ */
+public final class DictionaryImage {
+
+  static final String RESOURCE_NAME = "wordle_dictionary.bin";
+
+  private static final String IMAGE_FILE_PROPERTY = "wordle.dictionary.image";
+  private static final int MAGIC = 0x57444943;
+  private static final int FORMAT_VERSION = 3;
+  private static final int HEADER_SIZE = 8 * Integer.BYTES;
+  private static final int TRAILER_SIZE = Long.BYTES;
+
+  private final int solutionTextSize;
+  private final int allowedTextSize;
+  private final int solutionTextChecksum;
+  private final int allowedTextChecksum;
+  private final Dictionary solutions;
+  private final Dictionary allowedWords;
+
+  private DictionaryImage(int solutionTextSize, int allowedTextSize, int solutionTextChecksum,
+      int allowedTextChecksum, Dictionary solutions, Dictionary allowedWords) {
+    this.solutionTextSize = solutionTextSize;
+    this.allowedTextSize = allowedTextSize;
+    this.solutionTextChecksum = solutionTextChecksum;
+    this.allowedTextChecksum = allowedTextChecksum;
+    this.solutions = solutions;
+    this.allowedWords = allowedWords;
+  }
+
+  /**
+   * Compile the word lists into an image. The file is written to a temporary location first and
+   * then moved, so that concurrent readers never see a partially written file.
+   *
+   * @param file the file to write
+   * @throws IOException if the file cannot be written
+   */
+  public static void compile(Path file) throws IOException {
+    requireNonNull(file);
+    byte[] solutionText = WordProvider.readResource(WordProvider.SOLUTION_WORDLE_FILE_PATH);
+    byte[] allowedText = WordProvider.readResource(WordProvider.ACCEPT_WORDLE_FILE_PATH);
+    Dictionary solutions = WordProvider.parseSolutions(solutionText);
+    Dictionary allowedWords = WordProvider.parseAllowedWords(allowedText, solutionText);
+
+    ByteBuffer image = ByteBuffer.allocate(
+        HEADER_SIZE + (solutions.size() + allowedWords.size()) * Integer.BYTES + TRAILER_SIZE)
+        .order(ByteOrder.BIG_ENDIAN);
+    image.putInt(MAGIC).putInt(FORMAT_VERSION)
+        .putInt(solutionText.length).putInt(allowedText.length)
+        .putInt(textChecksum(solutionText)).putInt(textChecksum(allowedText))
+        .putInt(solutions.size()).putInt(allowedWords.size());
+    for (Dictionary words : new Dictionary[] {solutions, allowedWords}) {
+      for (int id = 0; id < words.size(); id++) {
+        image.putInt(words.getPacked(id));
+      }
+    }
+    image.putLong(checksum(ByteBuffer.wrap(image.array(), 0, image.position())));
+    image.flip();
+
+    Path directory = file.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    Path temp = Files.createTempFile(directory, "wordle-dictionary", ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        while (image.hasRemaining()) {
+          channel.write(image);
+        }
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Find the image: the file named by the system property {@value #IMAGE_FILE_PROPERTY}, which is
+   * memory-mapped, or else the resource {@value #RESOURCE_NAME}, which is read at once.
+   *
+   * @return the content of the image, or {@code null} if there is none
+   */
+  static ByteBuffer find() {
+    try {
+      String configured = System.getProperty(IMAGE_FILE_PROPERTY);
+      if (configured != null) {
+        Path file = Paths.get(configured);
+        if (!Files.isReadable(file)) {
+          return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+          return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+      }
+
+      try (InputStream stream =
+          DictionaryImage.class.getClassLoader().getResourceAsStream(RESOURCE_NAME)) {
+        return stream == null ? null : ByteBuffer.wrap(stream.readAllBytes());
+      }
+    } catch (IOException e) {
+      // A broken image is not fatal, the text files are parsed instead
+      return null;
+    }
+  }
+
+  /**
+   * Check whether the image is the resource {@value #RESOURCE_NAME} and lies in the same jar file
+   * or directory as the given resources. The build compiles the image from the text files next to
+   * it, so it only has to be compared with their sizes.
+   *
+   * @param sources the names of the text files in the resource directory
+   * @return true if the image is built into the same location as all the text files
+   */
+  static boolean isBundledWith(String... sources) {
+    if (System.getProperty(IMAGE_FILE_PROPERTY) != null) {
+      return false;
+    }
+    ClassLoader loader = DictionaryImage.class.getClassLoader();
+    String location = location(loader.getResource(RESOURCE_NAME), RESOURCE_NAME);
+    for (String source : sources) {
+      if (location == null || !location.equals(location(loader.getResource(source), source))) {
+        return false;
+      }
+    }
+    return location != null;
+  }
+
+  private static String location(URL resource, String name) {
+    if (resource == null) {
+      return null;
+    }
+    String url = resource.toString();
+    return url.endsWith(name) ? url.substring(0, url.length() - name.length()) : null;
+  }
+
+  /**
+   * Read an image.
+   *
+   * @param content the content of the image
+   * @return the image, or {@code null} if the content is truncated, corrupt or of another version
+   */
+  static DictionaryImage read(ByteBuffer content) {
+    ByteBuffer image = content.duplicate().order(ByteOrder.BIG_ENDIAN);
+    if (image.remaining() < HEADER_SIZE + TRAILER_SIZE
+        || image.getInt() != MAGIC
+        || image.getInt() != FORMAT_VERSION) {
+      return null;
+    }
+    int solutionTextSize = image.getInt();
+    int allowedTextSize = image.getInt();
+    int solutionTextChecksum = image.getInt();
+    int allowedTextChecksum = image.getInt();
+    int solutionCount = image.getInt();
+    int allowedCount = image.getInt();
+    if (solutionCount < 0 || allowedCount < 0 || image.remaining()
+        != ((long) solutionCount + allowedCount) * Integer.BYTES + TRAILER_SIZE) {
+      return null;
+    }
+
+    int[] solutions = new int[solutionCount];
+    int[] allowedWords = new int[allowedCount];
+    image.asIntBuffer().get(solutions).get(allowedWords);
+    ByteBuffer covered = content.duplicate();
+    covered.limit(covered.limit() - TRAILER_SIZE);
+    if (image.getLong(image.limit() - TRAILER_SIZE) != checksum(covered)) {
+      return null;
+    }
+
+    try {
+      return new DictionaryImage(solutionTextSize, allowedTextSize, solutionTextChecksum,
+          allowedTextChecksum, Dictionary.ofSorted(solutions), Dictionary.ofSorted(allowedWords));
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static long checksum(ByteBuffer data) {
+    CRC32 checksum = new CRC32();
+    checksum.update(data);
+    return checksum.getValue();
+  }
+
+  private static int textChecksum(byte[] text) {
+    return (int) checksum(ByteBuffer.wrap(text));
+  }
+
+  /**
+   * Check whether the image may have been compiled from text files of the given sizes. Text files
+   * that were edited without changing their size are not noticed, so this is only enough for the
+   * image that the build compiled from the text files next to it, see {@link #isBundledWith}.
+   *
+   * @param solutionTextSize the size of the file of solution words, or -1 if it is unknown
+   * @param allowedTextSize  the size of the file of allowed words, or -1 if it is unknown
+   * @return true if the sizes are those the image was compiled from
+   */
+  boolean matchesSourceSizes(long solutionTextSize, long allowedTextSize) {
+    return solutionTextSize == this.solutionTextSize && allowedTextSize == this.allowedTextSize;
+  }
+
+  /**
+   * Check whether the image was compiled from the given text files, comparing their sizes and
+   * checksums.
+   *
+   * @param solutionText the content of the file of solution words
+   * @param allowedText  the content of the file of allowed words
+   * @return true if the image was compiled from the text files
+   */
+  boolean matchesSources(byte[] solutionText, byte[] allowedText) {
+    return matchesSourceSizes(solutionText.length, allowedText.length)
+        && textChecksum(solutionText) == solutionTextChecksum
+        && textChecksum(allowedText) == allowedTextChecksum;
+  }
+
+  /**
+   * Get the solution words.
+   *
+   * @return the solution words
+   */
+  Dictionary getSolutions() {
+    return solutions;
+  }
+
+  /**
+   * Get the words that are accepted as a guess, including the solution words.
+   *
+   * @return the allowed words
+   */
+  Dictionary getAllowedWords() {
+    return allowedWords;
+  }
+}
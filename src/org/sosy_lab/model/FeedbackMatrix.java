@@ -0,0 +1,331 @@
+package org.sosylab.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+/**
+ * The feedback matrix stores the evaluation of every allowed guess against every possible solution
+ * word. Each evaluation is encoded as a single byte in base 3, where the digit at position
+ * {@code i} is the ordinal of the {@link GuessResult} of the {@code i}-th letter.
+ *
+ * <p>The matrix is computed once and saved to a cache file. Later instances memory-map that file,
+ * so that looking up a pattern is a single read from the mapped buffer.
+ */
+final class FeedbackMatrix {
+
+  /**
+   * The number of different patterns a guess can produce.
+   */
+  static final int PATTERN_COUNT = 243;
+
+  /**
+   * The pattern of a guess that matches the solution word.
+   */
+  static final int ALL_CORRECT = PATTERN_COUNT - 1;
+
+  /**
+   * The version of the cache file format. Has to be increased whenever the layout changes.
+   */
+  static final int FORMAT_VERSION = 1;
+
+  private static final String CACHE_FILE_PROPERTY = "wordle.feedback.cache";
+  private static final String DEFAULT_CACHE_FILE_NAME =
+      "wordle-feedback-v" + FORMAT_VERSION + ".bin";
+
+  /**
+   * Magic number "WFMX" that marks a file as a feedback matrix.
+   */
+  private static final int MAGIC = 0x57464d58;
+  private static final int HEADER_SIZE = 4 * Integer.BYTES + Long.BYTES;
+
+  private static final GuessResult[] RESULTS = GuessResult.values();
+
+  private final Dictionary guesses;
+  private final Dictionary solutions;
+  private final ByteBuffer patterns;
+  private final int[] guessIdsOfSolutions;
+
+  /**
+   * Create a matrix over the given words.
+   *
+   * @param guesses   the words that can be guessed
+   * @param solutions the possible solution words
+   * @param patterns  the encoded patterns, row by row for each guess
+   */
+  private FeedbackMatrix(Dictionary guesses, Dictionary solutions, ByteBuffer patterns) {
+    this.guesses = guesses;
+    this.solutions = solutions;
+    this.patterns = patterns;
+
+    guessIdsOfSolutions = new int[solutions.size()];
+    for (int s = 0; s < guessIdsOfSolutions.length; s++) {
+      guessIdsOfSolutions[s] = guesses.indexOfPacked(solutions.getPacked(s));
+    }
+  }
+
+  /**
+   * Get the matrix for the words of the {@link WordProvider}. The matrix is loaded from the cache
+   * file on first use, or computed and saved if no valid cache file exists.
+   *
+   * @return the shared matrix
+   */
+  static FeedbackMatrix getInstance() {
+    return Holder.INSTANCE;
+  }
+
+  /**
+   * Defers loading the matrix until it is actually needed.
+   */
+  private static final class Holder {
+    private static final FeedbackMatrix INSTANCE = loadOrBuild(
+        WordProvider.getAllowedWords(), WordProvider.getSolutions(), defaultCacheFile());
+  }
+
+  /**
+   * Get the location of the cache file. It can be changed with the system property
+   * {@value #CACHE_FILE_PROPERTY}.
+   *
+   * @return the path of the cache file
+   */
+  static Path defaultCacheFile() {
+    String configured = System.getProperty(CACHE_FILE_PROPERTY);
+    if (configured != null) {
+      return Paths.get(configured);
+    }
+    return Paths.get(System.getProperty("java.io.tmpdir"), DEFAULT_CACHE_FILE_NAME);
+  }
+
+  /**
+   * Load a matrix from the cache file, or compute it and try to save it if the file is missing or
+   * does not match the given words.
+   *
+   * @param guesses   the words that can be guessed
+   * @param solutions the possible solution words
+   * @param cacheFile the file that caches the matrix
+   * @return the matrix for the given words
+   */
+  static FeedbackMatrix loadOrBuild(Dictionary guesses, Dictionary solutions, Path cacheFile) {
+    requireNonNull(guesses);
+    requireNonNull(solutions);
+    requireNonNull(cacheFile);
+
+    long fingerprint = fingerprint(guesses, solutions);
+    ByteBuffer mapped = map(cacheFile, guesses.size(), solutions.size(), fingerprint);
+    if (mapped != null) {
+      return new FeedbackMatrix(guesses, solutions, mapped);
+    }
+
+    byte[] data = compute(guesses, solutions);
+    save(cacheFile, guesses.size(), solutions.size(), fingerprint, data);
+    return new FeedbackMatrix(guesses, solutions, ByteBuffer.wrap(data));
+  }
+
+  /**
+   * Compute the patterns for all pairs of guesses and solutions. Rows are computed in parallel.
+   *
+   * @param guesses   the words that can be guessed
+   * @param solutions the possible solution words
+   * @return the patterns, row by row for each guess
+   */
+  private static byte[] compute(Dictionary guesses, Dictionary solutions) {
+    int columns = solutions.size();
+    BulkScorer scorer = BulkScorer.of(solutions);
+
+    byte[] data = new byte[guesses.size() * columns];
+    IntStream.range(0, guesses.size()).parallel().forEach(g -> {
+      char[] guess = new char[Game.NUMBER_OF_CHARS_IN_WORD];
+      guesses.getLetters(g, guess);
+      scorer.score(guess, data, g * columns);
+    });
+    return data;
+  }
+
+  /**
+   * Memory-map the cache file if it exists and matches the expected dimensions and words.
+   *
+   * @return the mapped patterns, or {@code null} if the file cannot be used
+   */
+  private static ByteBuffer map(Path cacheFile, int rows, int columns, long fingerprint) {
+    if (!Files.isReadable(cacheFile)) {
+      return null;
+    }
+
+    try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+      long expectedSize = HEADER_SIZE + (long) rows * columns;
+      if (channel.size() != expectedSize) {
+        return null;
+      }
+
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+      while (header.hasRemaining()) {
+        if (channel.read(header) < 0) {
+          return null;
+        }
+      }
+      header.flip();
+      if (header.getInt() != MAGIC
+          || header.getInt() != FORMAT_VERSION
+          || header.getInt() != rows
+          || header.getInt() != columns
+          || header.getLong() != fingerprint) {
+        return null;
+      }
+
+      return channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, (long) rows * columns);
+    } catch (IOException e) {
+      // A broken cache is not fatal, the matrix is computed again
+      return null;
+    }
+  }
+
+  /**
+   * Save the patterns to the cache file. The file is written to a temporary location first and
+   * then moved, so that concurrent readers never see a partially written file.
+   */
+  private static void save(Path cacheFile, int rows, int columns, long fingerprint, byte[] data) {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+    header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(rows).putInt(columns).putLong(fingerprint);
+    header.flip();
+
+    Path temp = null;
+    try {
+      Path directory = cacheFile.toAbsolutePath().getParent();
+      Files.createDirectories(directory);
+      temp = Files.createTempFile(directory, "wordle-feedback", ".tmp");
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        ByteBuffer body = ByteBuffer.wrap(data);
+        while (header.hasRemaining()) {
+          channel.write(header);
+        }
+        while (body.hasRemaining()) {
+          channel.write(body);
+        }
+      }
+      Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      // Without a cache file the matrix simply has to be computed again on the next start
+      if (temp != null) {
+        try {
+          Files.deleteIfExists(temp);
+        } catch (IOException ignored) {
+          // nothing left to clean up
+        }
+      }
+    }
+  }
+
+  /**
+   * Compute a fingerprint of the word lists, so that a cache file built from different words is
+   * not used.
+   */
+  static long fingerprint(Dictionary guesses, Dictionary solutions) {
+    long hash = 1125899906842597L;
+    for (Dictionary words : new Dictionary[] {guesses, solutions}) {
+      hash = 31 * hash + words.size();
+      for (int id = 0; id < words.size(); id++) {
+        hash = 31 * hash + words.getPacked(id);
+      }
+    }
+    return hash;
+  }
+
+  /**
+   * Encode the results of a guess as a pattern.
+   *
+   * @param results the results of each letter
+   * @return the pattern between 0 and {@link #PATTERN_COUNT} (exclusive)
+   */
+  static int encode(GuessResult[] results) {
+    Game.throwErrorIfInvalidWordSize(results.length);
+    int pattern = 0;
+    for (int i = Game.NUMBER_OF_CHARS_IN_WORD - 1; i >= 0; i--) {
+      pattern = pattern * 3 + results[i].ordinal();
+    }
+    return pattern;
+  }
+
+  /**
+   * Get the result of a single letter from a pattern.
+   *
+   * @param pattern  the encoded pattern
+   * @param position the position of the letter
+   * @return the result of the letter
+   */
+  static GuessResult resultAt(int pattern, int position) {
+    for (int i = 0; i < position; i++) {
+      pattern /= 3;
+    }
+    return RESULTS[pattern % 3];
+  }
+
+  /**
+   * Get the pattern of a guess against a solution.
+   *
+   * @param guessIndex    the index of the guess in {@link #getGuesses()}
+   * @param solutionIndex the index of the solution in {@link #getSolutions()}
+   * @return the encoded pattern
+   */
+  int pattern(int guessIndex, int solutionIndex) {
+    return patterns.get(guessIndex * solutions.size() + solutionIndex) & 0xFF;
+  }
+
+  /**
+   * Get the index of a guess.
+   *
+   * @param word the guessed word
+   * @return the index, or {@link Dictionary#NOT_FOUND} if the word cannot be guessed
+   */
+  int guessIndexOf(CharSequence word) {
+    return guesses.indexOf(word);
+  }
+
+  /**
+   * Get the index of a solution word.
+   *
+   * @param word the solution word
+   * @return the index, or {@link Dictionary#NOT_FOUND} if the word is no possible solution
+   */
+  int solutionIndexOf(CharSequence word) {
+    return solutions.indexOf(word);
+  }
+
+  /**
+   * Get the index of the guess that is the same word as a solution.
+   *
+   * @param solutionIndex the index of the solution in {@link #getSolutions()}
+   * @return the index of the word in {@link #getGuesses()}, or {@link Dictionary#NOT_FOUND} if the
+   *     solution word cannot be guessed
+   */
+  int guessIdOfSolution(int solutionIndex) {
+    return guessIdsOfSolutions[solutionIndex];
+  }
+
+  /**
+   * Get the words that can be guessed, in the order of the rows of this matrix.
+   *
+   * @return the guesses
+   */
+  Dictionary getGuesses() {
+    return guesses;
+  }
+
+  /**
+   * Get the possible solution words, in the order of the columns of this matrix.
+   *
+   * @return the solutions
+   */
+  Dictionary getSolutions() {
+    return solutions;
+  }
+}
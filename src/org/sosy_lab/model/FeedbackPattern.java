@@ -0,0 +1,81 @@
+package org.sosylab.model;
+
+/**
+ * The evaluation of all letters of a guess. There are only {@link FeedbackMatrix#PATTERN_COUNT}
+ * different evaluations, so every one of them exists exactly once and is shared by all guesses
+ * that got it. Evaluations can therefore be compared with {@code ==}.
+ */
+public final class FeedbackPattern {
+
+  private static final FeedbackPattern[] PATTERNS =
+      new FeedbackPattern[FeedbackMatrix.PATTERN_COUNT];
+
+  static {
+    for (int pattern = 0; pattern < PATTERNS.length; pattern++) {
+      PATTERNS[pattern] = new FeedbackPattern(pattern);
+    }
+  }
+
+  private final int pattern;
+  private final GuessResult[] results;
+
+  private FeedbackPattern(int pattern) {
+    this.pattern = pattern;
+    results = new GuessResult[Game.NUMBER_OF_CHARS_IN_WORD];
+    for (int i = 0; i < results.length; i++) {
+      results[i] = FeedbackMatrix.resultAt(pattern, i);
+    }
+  }
+
+  /**
+   * Get the evaluation packed as a pattern.
+   *
+   * @param pattern the packed evaluation, see {@link FeedbackMatrix}
+   * @return the shared instance
+   * @throws IllegalArgumentException if the pattern is out of range
+   */
+  public static FeedbackPattern of(int pattern) {
+    if (pattern < 0 || pattern >= PATTERNS.length) {
+      throw new IllegalArgumentException("No pattern: " + pattern);
+    }
+    return PATTERNS[pattern];
+  }
+
+  /**
+   * Get the evaluation with the given results.
+   *
+   * @param results the result of each letter
+   * @return the shared instance
+   */
+  static FeedbackPattern of(GuessResult[] results) {
+    return PATTERNS[FeedbackMatrix.encode(results)];
+  }
+
+  /**
+   * Get the evaluation packed as a number.
+   *
+   * @return the pattern between 0 and {@link FeedbackMatrix#PATTERN_COUNT} (exclusive)
+   */
+  public int getPattern() {
+    return pattern;
+  }
+
+  /**
+   * Get the result of a single letter.
+   *
+   * @param position the position of the letter
+   * @return the result of the letter
+   */
+  public GuessResult resultAt(int position) {
+    return results[position];
+  }
+
+  /**
+   * Check whether all letters are correct.
+   *
+   * @return true if the guess was the solution
+   */
+  public boolean isAllCorrect() {
+    return pattern == FeedbackMatrix.ALL_CORRECT;
+  }
+}
@@ -2,12 +2,14 @@ package org.sosylab.model;
 
 import static java.util.Objects.requireNonNull;
 
-import java.util.ArrayList;
+import java.io.PrintStream;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * Manages a game of Wordle.
+ * Manages a game of Wordle. A game is played from a single thread, but other threads may follow
+ * it through its {@link #getSnapshot() snapshots}.
  */
 public class Game {
 
@@ -15,17 +17,66 @@ public class Game {
 
   public static final int NUMBER_OF_CHARS_IN_WORD = 5;
   private final GameState state;
-  private final List<Guess> guesses;
+
+  /**
+   * The latest snapshot, which also holds the guesses made so far. It is replaced after every
+   * change of the game.
+   */
+  private final AtomicReference<GameSnapshot> snapshot;
   private final Keyboard keyboard;
-  private static final String EMPTY_GUESS = " _  _  _  _  _ ";
+  private final CandidateSet candidates;
+  private int guessesAppliedToCandidates;
+  private final BoardRenderer renderer;
+
+  /**
+   * The hints every guess has to use, or null if the game is not in hard mode.
+   */
+  private final HardModeConstraints constraints;
+
+  /**
+   * Whether the solution word is chosen against the guesses of the player.
+   */
+  private final boolean adversarial;
+
+  /**
+   * The journal that records this game, or null if the game is not recorded.
+   */
+  private GameJournal journal;
+  private long journalId;
 
   /**
    * create a new game if the input from the user is "NEW".
    */
   public Game() {
-    state = new GameState(WordProvider.drawRandomWord(), NUMBER_OF_GUESSES);
-    guesses = new ArrayList<>(NUMBER_OF_GUESSES);
-    keyboard = new Keyboard();
+    this(System.out);
+  }
+
+  /**
+   * create a new game with a random solution word that writes its output to the given stream.
+   *
+   * @param out the stream that receives the rendered board
+   */
+  public Game(PrintStream out) {
+    this(WordProvider.drawRandomWord(), OutputSink.of(out));
+  }
+
+  /**
+   * create a new game with a random solution word that writes its output to the given sink.
+   *
+   * @param sink the sink that receives the rendered board
+   */
+  public Game(OutputSink sink) {
+    this(WordProvider.drawRandomWord(), sink);
+  }
+
+  /**
+   * create a new game with a random solution word that writes its output to the given sink.
+   *
+   * @param sink     the sink that receives the rendered board
+   * @param hardMode whether every guess has to use the hints revealed so far
+   */
+  public Game(OutputSink sink, boolean hardMode) {
+    this(WordProvider.drawRandomWord(), sink, hardMode);
   }
 
 
@@ -35,9 +86,76 @@ public class Game {
    * @param wordToGuess solution word set by user
    */
   public Game(String wordToGuess) {
+    this(wordToGuess, System.out);
+  }
+
+  /**
+   * create a new game with the user's input "wordToGuess" as the solution word that writes its
+   * output to the given stream.
+   *
+   * @param wordToGuess solution word set by user
+   * @param out         the stream that receives the rendered board
+   */
+  public Game(String wordToGuess, PrintStream out) {
+    this(wordToGuess, OutputSink.of(out));
+  }
+
+  /**
+   * create a new game with the user's input "wordToGuess" as the solution word that writes its
+   * output to the given sink.
+   *
+   * @param wordToGuess solution word set by user
+   * @param sink        the sink that receives the rendered board
+   */
+  public Game(String wordToGuess, OutputSink sink) {
+    this(wordToGuess, sink, false);
+  }
+
+  /**
+   * create a new game with the user's input "wordToGuess" as the solution word that writes its
+   * output to the given sink. In hard mode every guess has to use the hints revealed so far:
+   * letters found at their correct position have to stay there and letters found in the word have
+   * to be used again.
+   *
+   * @param wordToGuess solution word set by user
+   * @param sink        the sink that receives the rendered board
+   * @param hardMode    whether every guess has to use the hints revealed so far
+   */
+  public Game(String wordToGuess, OutputSink sink, boolean hardMode) {
+    this(wordToGuess, sink, hardMode, false);
+  }
+
+  /**
+   * create a new game. In an adversarial game, the solution word is not fixed: every guess gets
+   * the evaluation that leaves the most solution words open, and the solution word is replaced by
+   * one of those that remain.
+   *
+   * @param wordToGuess the solution word, only preliminary in an adversarial game
+   * @param sink        the sink that receives the rendered board
+   * @param hardMode    whether every guess has to use the hints revealed so far
+   * @param adversarial whether the solution word is chosen against the guesses
+   */
+  Game(String wordToGuess, OutputSink sink, boolean hardMode, boolean adversarial) {
+    renderer = new BoardRenderer(sink);
     state = new GameState(wordToGuess, NUMBER_OF_GUESSES);
-    guesses = new ArrayList<>(NUMBER_OF_GUESSES);
+    snapshot = new AtomicReference<>(GameSnapshot.start(NUMBER_OF_GUESSES));
     keyboard = new Keyboard();
+    candidates = new CandidateSet(WordProvider.getSolutions());
+    constraints = hardMode ? new HardModeConstraints() : null;
+    this.adversarial = adversarial;
+  }
+
+  /**
+   * create a new adversarial game: instead of fixing a solution word up front, every guess gets
+   * the evaluation that keeps the most solution words possible, so the player always faces the
+   * worst case.
+   *
+   * @param sink     the sink that receives the rendered board
+   * @param hardMode whether every guess has to use the hints revealed so far
+   * @return the new game
+   */
+  public static Game adversarial(OutputSink sink, boolean hardMode) {
+    return new Game(WordProvider.drawRandomWord(), sink, hardMode, true);
   }
 
 
@@ -68,11 +186,51 @@ public class Game {
    * @return true if the game is won.
    */
   public boolean isGameWon() {
-    return guesses.get(guesses.size() - 1).isWinner();
+    return snapshot.get().getLastGuess().orElseThrow().isWinner();
+  }
+
+  /**
+   * Check whether the game is played in hard mode.
+   *
+   * @return true if every guess has to use the hints revealed so far
+   */
+  public boolean isHardMode() {
+    return constraints != null;
+  }
+
+  /**
+   * Check whether the game is adversarial.
+   *
+   * @return true if the solution word is chosen against the guesses of the player
+   */
+  public boolean isAdversarial() {
+    return adversarial;
+  }
+
+  /**
+   * Check whether a word may be guessed at all, that is whether it is in the dictionary of allowed
+   * words.
+   *
+   * @param word the word
+   * @return true if the word is an allowed guess
+   */
+  public static boolean isAllowedWord(CharSequence word) {
+    return WordProvider.isValidWord(word);
+  }
+
+  /**
+   * Check whether a word uses all hints revealed so far. Outside of hard mode every word does.
+   *
+   * @param word a word of {@link #NUMBER_OF_CHARS_IN_WORD} letters
+   * @return true if the word may be guessed in this game
+   */
+  public boolean usesRevealedHints(CharSequence word) {
+    throwErrorIfInvalidWordSize(word.length());
+    return constraints == null || constraints.isSatisfiedBy(word);
   }
 
   /**
-   * Make a guess.
+   * Make a guess. In hard mode, guesses that do not use the hints revealed so far are illegal.
    *
    * @param word the word that was guessed.
    * @return a Guess instance if the guess was legal
@@ -80,98 +238,166 @@ public class Game {
 
   public Optional<Guess> guessWord(String word) {
 
+    long start = Metric.start();
+
     //check whether input guess is legal
     //return a guess if legal
-    if (WordProvider.isValidWord(word)) {
+    if (WordProvider.isValidWord(word)
+        && (constraints == null || constraints.isSatisfiedBy(word))) {
+
+      //in an adversarial game, first pick the solution that answers the guess with the least help
+      if (adversarial) {
+        chooseAdversarialSolution(word);
+      }
 
       //check input guess against solution word
       Optional<Guess> inputGuess = Optional.of(state.getSolutionWord().guessWord(word));
 
-      //update the list of guesses
-      guesses.add(inputGuess.get());
-
-      for (int j = 0; j < guesses.size(); j++) {
-        //loop through all guesses in the list
-        Guess singleGuess = guesses.get(j);
-        //if input guess matches the solution word
-        //set game won
-        if (singleGuess.isWinner()) {
-          state.setGameWon();
-        }
-
-        //create a StringBuilder object "builder"
-        //to change the format of guess according to guess results
-        StringBuilder builder = new StringBuilder();
-        String x = " ";
-        builder.append(x);
-
-        for (int i = 0; i < Game.NUMBER_OF_CHARS_IN_WORD; i++) {
-          //change the format of guess if guess is correct
-          if (singleGuess.getResults()[i] == GuessResult.CORRECT) {
-            String y = "[" + singleGuess.getGuessedWord()[i] + "]";
-            builder.append(y);
-          } else {
-            //change the format of guess if guess is contained
-            if (singleGuess.getResults()[i] == GuessResult.CONTAINED) {
-              String y = "(" + singleGuess.getGuessedWord()[i] + ")";
-              builder.append(y);
-            } else {
-              //change the format of guess if guess is wrong
-              String y = " " + singleGuess.getGuessedWord()[i] + " ";
-              builder.append(y);
-            }
-          }
-        }
-        //print updated guess
-        String updatedGuess = builder.toString();
-        System.out.println(updatedGuess);
+      //if input guess matches the solution word
+      //set game won
+      if (inputGuess.get().isWinner()) {
+        state.setGameWon();
       }
+      int guessCount = snapshot.get().getGuessCount() + 1;
+
+      //render the new guess once, earlier rows are kept by the renderer
+      renderer.addGuess(inputGuess.get());
 
       //update keyboard
       keyboard.updateKeyboard(inputGuess.get());
 
-      //output reduced guess area
-      if (!isGameWon()) {
-        for (int k = 0; k < Game.NUMBER_OF_GUESSES - guesses.size(); k++) {
-          System.out.println(EMPTY_GUESS);
-        }
+      //remember the revealed hints for the next guesses in hard mode
+      if (constraints != null) {
+        constraints.add(inputGuess.get());
       }
 
       //if more than 6 wrong guesses, set game lost
-      if (guesses.size() > Game.NUMBER_OF_GUESSES) {
+      Guess revealedSolution = null;
+      if (guessCount > Game.NUMBER_OF_GUESSES) {
         state.abortGame();
+        revealedSolution = state.getSolutionWord().reveal();
+      }
 
-        StringBuilder builder = new StringBuilder();
+      //publish the guess together with the new state
+      snapshot.set(snapshot.get().withGuess(inputGuess.get(), state));
 
-        for (int i = 0; i < Game.NUMBER_OF_CHARS_IN_WORD; i++) {
-          if (state.getSolutionWord().reveal().getResults()[i] == GuessResult.CORRECT) {
-            String y = "[" + state.getSolutionWord().reveal().getGuessedWord()[i] + "]";
-            builder.append(y);
-          }
+      //record the guess and the end of the game, the journal writes them in the background
+      if (journal != null) {
+        journal.recordGuess(journalId, inputGuess.get(),
+            Dictionary.pack(state.getSolutionWord().reveal().getWord()));
+        if (state.getCurrentPhase() != Phase.RUNNING) {
+          journal.recordEnd(journalId, state);
         }
-
-        String outputSolution = builder.toString();
-        System.out.println(outputSolution);
-
       }
 
+      //output the guesses and the reduced guess area as one frame
+      int emptyRows = isGameWon() ? 0 : Math.max(0, Game.NUMBER_OF_GUESSES - guessCount);
+      renderer.renderBoard(emptyRows, revealedSolution);
+
       //return a guess instance of the guess is legal
+      Metric.GAME_GUESS.record(start);
       return inputGuess;
     } else {
       //return empty optional if the input guess is not legal
+      Metric.GAME_GUESS.record(start);
       return Optional.empty();
     }
 
   }
 
+  /**
+   * Add a guess of a restored game without rendering the board. The state of the game has to be
+   * restored separately with {@link #restoreState(Phase, int)}.
+   *
+   * @param guess the evaluated guess
+   */
+  void restoreGuess(Guess guess) {
+    snapshot.set(snapshot.get().withGuess(requireNonNull(guess), state));
+    renderer.addGuess(guess);
+    keyboard.updateKeyboard(guess);
+    if (constraints != null) {
+      constraints.add(guess);
+    }
+  }
+
+  /**
+   * Set the phase and the remaining guesses of a restored game.
+   *
+   * @param phase            the phase of the game
+   * @param remainingGuesses the number of remaining guesses
+   */
+  void restoreState(Phase phase, int remainingGuesses) {
+    state.restore(phase, remainingGuesses);
+    snapshot.set(snapshot.get().withState(state));
+  }
+
+  /**
+   * Keep only the largest group of candidates that give the same evaluation of a guess and make
+   * one of them the solution word. All candidates of the group, and therefore the new solution,
+   * are consistent with all guesses made so far.
+   *
+   * @param word the guess that is about to be made
+   */
+  private void chooseAdversarialSolution(String word) {
+    CandidateSet remaining = updateCandidates();
+    remaining.keepLargestPartition(word.toLowerCase().toCharArray());
+    //keeping the partition already applied the guess that is added next
+    guessesAppliedToCandidates++;
+    state.setSolutionWord(new SolutionWord(WordProvider.getSolutions().getWord(remaining.first())));
+  }
+
   /**
    * Get the list of guesses made by an user.
    *
-   * @return the guesses made
+   * @return the guesses made, as a list that cannot be modified
    */
 
   public List<Guess> getUserGuesses() {
-    return new ArrayList<>(guesses);
+    return snapshot.get().getGuesses();
+  }
+
+  /**
+   * Get the solution words that are still consistent with the guesses made so far.
+   *
+   * @return the remaining candidates in alphabetical order
+   */
+  public List<String> remainingCandidates() {
+    return updateCandidates().toWords();
+  }
+
+  /**
+   * Get the number of solution words that are still consistent with the guesses made so far.
+   *
+   * @return the number of remaining candidates
+   */
+  public int candidateCount() {
+    return updateCandidates().size();
+  }
+
+  /**
+   * Get the ids of the solution words that are still consistent with the guesses made so far.
+   *
+   * @return the ids of the remaining candidates in ascending order
+   */
+  int[] candidateIds() {
+    return updateCandidates().toIds();
+  }
+
+  /**
+   * Remove the solution words that contradict the results of guesses made since the candidates
+   * were last requested. The candidates are only updated on demand, so that games that never ask
+   * for them, like restored or simulated games, do not pay for it.
+   *
+   * @return the up-to-date candidates
+   */
+  private CandidateSet updateCandidates() {
+    GameSnapshot current = snapshot.get();
+    while (guessesAppliedToCandidates < current.getGuessCount()) {
+      Guess guess = current.getGuess(guessesAppliedToCandidates);
+      candidates.narrow(guess.getGuessedWord(), guess.getPattern());
+      guessesAppliedToCandidates++;
+    }
+    return candidates;
   }
 
   /**
@@ -179,28 +405,69 @@ public class Game {
    */
   public void forfeit() {
     state.abortGame();
+    snapshot.set(snapshot.get().withState(state));
+    if (journal != null) {
+      journal.recordForfeit(journalId);
+    }
 
-    StringBuilder builder = new StringBuilder();
+    //output the guesses made so far and the solution
+    renderer.renderForfeit(state.getSolutionWord().reveal());
+  }
 
-    for (int i = 0; i < Game.NUMBER_OF_CHARS_IN_WORD; i++) {
+  /**
+   * Output the current board with an empty row for every remaining guess.
+   */
+  public void printBoard() {
+    renderer.renderBoard(Math.max(0, NUMBER_OF_GUESSES - snapshot.get().getGuessCount()), null);
+  }
 
-      if (state.getSolutionWord().reveal().getResults()[i] == GuessResult.CORRECT) {
-        String y = "[" + state.getSolutionWord().reveal().getGuessedWord()[i] + "]";
-        builder.append(y);
-      }
+  /**
+   * Get the solution word. It is only revealed once the game is over.
+   *
+   * @return the solution word, or an empty optional while the game is running
+   */
+  public Optional<String> getRevealedSolution() {
+    if (state.getCurrentPhase() == Phase.RUNNING) {
+      return Optional.empty();
     }
-
-    String outputSolution = builder.toString();
-    System.out.println(outputSolution);
-
+    return Optional.of(state.getSolutionWord().reveal().getWord());
   }
 
   /**
    * Get the current game state.
    *
-   * @return the game state
+   * @return a copy of the game state
    */
   public GameState getState() {
     return state.createCopy();
   }
+
+  /**
+   * Record this game, including the guesses made so far, and all its following guesses and its
+   * end in a journal. Games whose solution word is no word of five letters are not recorded.
+   *
+   * @param journal the journal
+   * @throws IllegalStateException if the game is already recorded in a journal
+   */
+  public void journalTo(GameJournal journal) {
+    requireNonNull(journal);
+    if (this.journal != null) {
+      throw new IllegalStateException("The game is already recorded in a journal");
+    }
+    long id = journal.startGame(this);
+    if (id != 0) {
+      this.journal = journal;
+      journalId = id;
+    }
+  }
+
+  /**
+   * Get the latest snapshot of the game. This method may be called from any thread and neither
+   * blocks nor copies the guesses.
+   *
+   * @return the snapshot after the latest change of the game
+   */
+  public GameSnapshot getSnapshot() {
+    return snapshot.get();
+  }
 }
@@ -0,0 +1,326 @@
+package org.sosylab.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Saves games in a compact binary format and restores them.
+ *
+ * <p>A snapshot of a game consists of
+ * <ul>
+ *   <li>one byte with the phase in the lowest two bits, a flag whether the solution is stored as
+ *   a packed word in the third bit, the number of guesses in the three bits above, a flag
+ *   whether the game is played in hard mode in the seventh bit and a flag whether it is
+ *   adversarial in the highest bit,</li>
+ *   <li>one byte with the number of remaining guesses,</li>
+ *   <li>the solution, either as its id in the solution dictionary in two bytes or, if it is not a
+ *   solution word, packed as in the {@link Dictionary} in four bytes,</li>
+ *   <li>for every guess its id in the dictionary of allowed words in two bytes and its packed
+ *   evaluation, see {@link FeedbackMatrix}, in one byte.</li>
+ * </ul>
+ * A game therefore takes at most 27 bytes. A file starts with a short header, followed by the
+ * snapshots without any separators. Files are written and read sequentially through a large
+ * buffer, so that millions of games can be streamed with a few system calls.
+ */
+public final class GameArchive {
+
+  private static final int MAGIC = 0x57534156;
+  private static final byte FORMAT_VERSION = 1;
+  private static final int HEADER_SIZE = Integer.BYTES + 1;
+  private static final int BUFFER_SIZE = 1 << 20;
+
+  private static final Phase[] PHASES = Phase.values();
+  private static final int PHASE_MASK = 0b11;
+  private static final int PACKED_SOLUTION = 0b100;
+  private static final int GUESS_COUNT_SHIFT = 3;
+  private static final int GUESS_COUNT_MASK = 0b111;
+  private static final int HARD_MODE = 0b100_0000;
+  private static final int ADVERSARIAL = 0b1000_0000;
+
+  /**
+   * The most guesses a game can have: the game is lost after one guess too many.
+   */
+  private static final int MAX_GUESSES = Game.NUMBER_OF_GUESSES + 1;
+
+  /**
+   * The size of the largest possible snapshot.
+   */
+  static final int MAX_SNAPSHOT_SIZE = 2 + Integer.BYTES + MAX_GUESSES * 3;
+
+  private GameArchive() {
+  }
+
+  /**
+   * Save a single game to a file. An existing file is replaced. The file is written to a temporary
+   * location first and then moved, so that it is left untouched if the game cannot be saved.
+   *
+   * @param game the game to save
+   * @param file the file to write
+   * @throws IOException if the file cannot be written
+   * @throws IllegalArgumentException if the solution of the game is no word of five letters
+   */
+  public static void save(Game game, Path file) throws IOException {
+    ByteBuffer content = ByteBuffer.allocate(HEADER_SIZE + MAX_SNAPSHOT_SIZE);
+    content.putInt(MAGIC).put(FORMAT_VERSION);
+    encode(game, content);
+    content.flip();
+
+    Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "wordle-game", ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        while (content.hasRemaining()) {
+          channel.write(content);
+        }
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Restore the first game saved in a file.
+   *
+   * @param file the file to read
+   * @param sink the sink that receives the output of the restored game
+   * @return the restored game
+   * @throws IOException if the file cannot be read
+   * @throws IllegalArgumentException if the file contains no valid game
+   */
+  public static Game load(Path file, OutputSink sink) throws IOException {
+    try (Reader reader = new Reader(file, sink)) {
+      Game game = reader.read();
+      if (game == null) {
+        throw new IllegalArgumentException("The file contains no game");
+      }
+      return game;
+    }
+  }
+
+  /**
+   * Append the snapshot of a game to a buffer.
+   *
+   * @param game   the game to save
+   * @param buffer the buffer with at least {@link #MAX_SNAPSHOT_SIZE} bytes remaining
+   * @throws IllegalArgumentException if the solution of the game is no word of five letters
+   */
+  static void encode(Game game, ByteBuffer buffer) {
+    requireNonNull(game);
+    List<Guess> guesses = game.getUserGuesses();
+    GameState state = game.getState();
+
+    String solution = state.getSolutionWord().reveal().getWord();
+    int solutionId = WordProvider.getSolutions().indexOf(solution);
+    int packedSolution = Dictionary.pack(solution);
+    if (solutionId == Dictionary.NOT_FOUND && packedSolution < 0) {
+      throw new IllegalArgumentException("Only games with a solution of five letters can be saved");
+    }
+
+    int flags = state.getCurrentPhase().ordinal() | guesses.size() << GUESS_COUNT_SHIFT;
+    if (solutionId == Dictionary.NOT_FOUND) {
+      flags |= PACKED_SOLUTION;
+    }
+    if (game.isHardMode()) {
+      flags |= HARD_MODE;
+    }
+    if (game.isAdversarial()) {
+      flags |= ADVERSARIAL;
+    }
+    buffer.put((byte) flags);
+    buffer.put((byte) state.getRemainingGuesses());
+    if (solutionId == Dictionary.NOT_FOUND) {
+      buffer.putInt(packedSolution);
+    } else {
+      buffer.putShort((short) solutionId);
+    }
+
+    Dictionary allowedWords = WordProvider.getAllowedWords();
+    for (Guess guess : guesses) {
+      buffer.putShort((short) allowedWords.indexOf(guess.getWord()));
+      buffer.put((byte) guess.getPattern());
+    }
+  }
+
+  /**
+   * Restore a game from the next snapshot in a buffer.
+   *
+   * @param buffer the buffer positioned at the start of a snapshot
+   * @param sink   the sink that receives the output of the restored game
+   * @return the restored game
+   * @throws IllegalArgumentException if the snapshot is malformed
+   */
+  static Game decode(ByteBuffer buffer, OutputSink sink) {
+    try {
+      int flags = buffer.get() & 0xFF;
+      int remainingGuesses = buffer.get();
+      int phase = flags & PHASE_MASK;
+      int guessCount = flags >>> GUESS_COUNT_SHIFT & GUESS_COUNT_MASK;
+      if (phase >= PHASES.length || guessCount > MAX_GUESSES) {
+        throw new IllegalArgumentException("Malformed snapshot");
+      }
+
+      char[] solution = new char[Game.NUMBER_OF_CHARS_IN_WORD];
+      if ((flags & PACKED_SOLUTION) != 0) {
+        Dictionary.unpack(buffer.getInt(), solution);
+      } else {
+        WordProvider.getSolutions().getLetters(id(buffer, WordProvider.getSolutions()), solution);
+      }
+      Game game = new Game(new String(solution), sink, (flags & HARD_MODE) != 0,
+          (flags & ADVERSARIAL) != 0);
+
+      Dictionary allowedWords = WordProvider.getAllowedWords();
+      char[] letters = new char[Game.NUMBER_OF_CHARS_IN_WORD];
+      for (int i = 0; i < guessCount; i++) {
+        allowedWords.getLetters(id(buffer, allowedWords), letters);
+        int pattern = buffer.get() & 0xFF;
+        //the evaluation is stored to save scoring, but it still has to fit the solution
+        if (SolutionWord.score(letters, solution) != pattern) {
+          throw new IllegalArgumentException("Malformed snapshot");
+        }
+        game.restoreGuess(new Guess(letters, pattern));
+      }
+      game.restoreState(PHASES[phase], remainingGuesses);
+      return game;
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException("Truncated snapshot", e);
+    }
+  }
+
+  private static int id(ByteBuffer buffer, Dictionary dictionary) {
+    int id = buffer.getShort() & 0xFFFF;
+    if (id >= dictionary.size()) {
+      throw new IllegalArgumentException("Malformed snapshot");
+    }
+    return id;
+  }
+
+  /**
+   * Writes any number of games to a file, one after the other.
+   */
+  public static final class Writer implements Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /**
+     * Create a new file, replacing an existing one.
+     *
+     * @param file the file to write
+     * @throws IOException if the file cannot be created
+     */
+    public Writer(Path file) throws IOException {
+      channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+          StandardOpenOption.TRUNCATE_EXISTING);
+      buffer.putInt(MAGIC).put(FORMAT_VERSION);
+    }
+
+    /**
+     * Append a game to the file.
+     *
+     * @param game the game to save
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if the solution of the game is no word of five letters
+     */
+    public void write(Game game) throws IOException {
+      if (buffer.remaining() < MAX_SNAPSHOT_SIZE) {
+        flush();
+      }
+      encode(game, buffer);
+    }
+
+    private void flush() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+      try (channel) {
+        flush();
+      }
+    }
+  }
+
+  /**
+   * Reads the games of a file one after the other.
+   */
+  public static final class Reader implements Closeable {
+
+    private final FileChannel channel;
+    private final OutputSink sink;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private boolean endOfFile;
+
+    /**
+     * Open a file for reading.
+     *
+     * @param file the file to read
+     * @param sink the sink that receives the output of all restored games
+     * @throws IOException if the file cannot be opened
+     * @throws IllegalArgumentException if the file is no archive of games
+     */
+    public Reader(Path file, OutputSink sink) throws IOException {
+      this.sink = requireNonNull(sink);
+      channel = FileChannel.open(file, StandardOpenOption.READ);
+      buffer.flip();
+      try {
+        fill();
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC
+            || buffer.get() != FORMAT_VERSION) {
+          throw new IllegalArgumentException("The file is no archive of games");
+        }
+      } catch (IOException | RuntimeException e) {
+        channel.close();
+        throw e;
+      }
+    }
+
+    /**
+     * Restore the next game of the file.
+     *
+     * @return the restored game, or null if all games have been read
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is malformed
+     */
+    public Game read() throws IOException {
+      if (buffer.remaining() < MAX_SNAPSHOT_SIZE) {
+        fill();
+      }
+      if (!buffer.hasRemaining()) {
+        return null;
+      }
+      return decode(buffer, sink);
+    }
+
+    /**
+     * Move the unread bytes to the front of the buffer and read until it is full or the file
+     * ends.
+     */
+    private void fill() throws IOException {
+      buffer.compact();
+      while (!endOfFile && buffer.hasRemaining()) {
+        endOfFile = channel.read(buffer) < 0;
+      }
+      buffer.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,561 @@
+package org.sosylab.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An append-only journal of the events of many games: every new game, every guess, every forfeit
+ * and every end of a game. The in-flight games can be restored from the journal after a crash
+ * with {@link #replay(Path, OutputSink)}.
+ *
+ * <p>Games only put their events into a queue and never wait for the disk. A single writer thread
+ * takes all queued events of all games at once and writes them with one call, and it forces them
+ * to the disk at most once per fsync interval. Events that were written but not yet forced may be
+ * lost in a crash of the operating system, but not in a crash of the application.
+ *
+ * <p>The file starts with a header and continues with records of {@value #RECORD_SIZE} bytes: the
+ * type of the event, the id of the game, two ints and a byte.
+ * <ul>
+ *   <li>{@code NEW}: the solution word packed as in the {@link Dictionary}, again the solution
+ *   word, and the flags for hard mode and adversarial games,</li>
+ *   <li>{@code GUESS}: the packed guess, the packed solution word after the guess, which only
+ *   changes in adversarial games, and the pattern of the guess,</li>
+ *   <li>{@code FORFEIT}: nothing,</li>
+ *   <li>{@code PHASE}: the remaining guesses, nothing, and the phase the game ended in.</li>
+ * </ul>
+ * A record that was cut off at the end of the file is dropped when the journal is opened again. A
+ * game with impossible events is dropped as well, the other games are still restored.
+ */
+public final class GameJournal implements Closeable {
+
+  private static final String JOURNAL_FILE_PROPERTY = "wordle.journal.file";
+  private static final String FSYNC_INTERVAL_PROPERTY = "wordle.journal.fsync.millis";
+  private static final long DEFAULT_FSYNC_INTERVAL_MILLIS = 50;
+
+  private static final int MAGIC = 0x57474a4c;
+  private static final int FORMAT_VERSION = 1;
+  private static final int HEADER_SIZE = 2 * Integer.BYTES;
+  static final int RECORD_SIZE = 1 + Long.BYTES + 2 * Integer.BYTES + 1;
+
+  /**
+   * The maximum number of events written with a single call.
+   */
+  private static final int MAX_BATCH_SIZE = 4096;
+  private static final int READ_BUFFER_SIZE = 1 << 20;
+
+  private static final byte NEW = 1;
+  private static final byte GUESS = 2;
+  private static final byte FORFEIT = 3;
+  private static final byte PHASE = 4;
+  private static final byte HARD_MODE = 1;
+  private static final byte ADVERSARIAL = 2;
+
+  private static final Phase[] PHASES = Phase.values();
+
+  /**
+   * A single event as it is queued for the writer thread.
+   */
+  private static final class Event {
+
+    private final byte type;
+    private final long game;
+    private final int word;
+    private final int solution;
+    private final byte value;
+
+    private Event(byte type, long game, int word, int solution, byte value) {
+      this.type = type;
+      this.game = game;
+      this.word = word;
+      this.solution = solution;
+      this.value = value;
+    }
+  }
+
+  /**
+   * Tells the writer thread to stop once all events queued before it are written.
+   */
+  private static final Event STOP = new Event((byte) 0, 0, 0, 0, (byte) 0);
+
+  private final FileChannel channel;
+  private final long fsyncIntervalNanos;
+  private final LinkedBlockingQueue<Event> queue = new LinkedBlockingQueue<>();
+  private final AtomicLong nextGameId;
+  private final Thread writer;
+  private volatile boolean closed;
+
+  /**
+   * Whether the writer thread stopped because the file could not be restored after an error.
+   * Events recorded afterwards are ignored.
+   */
+  private volatile boolean broken;
+
+  /**
+   * The first error of the writer thread, thrown when the journal is closed.
+   */
+  private volatile IOException failure;
+
+  private GameJournal(FileChannel channel, long firstGameId, long fsyncIntervalMillis) {
+    this.channel = channel;
+    this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMillis);
+    nextGameId = new AtomicLong(firstGameId);
+    writer = new Thread(this::writeEvents, "wordle-journal-writer");
+    writer.setDaemon(true);
+  }
+
+  /**
+   * Open a journal and continue it. A missing file is created.
+   *
+   * @param file                the file of the journal
+   * @param fsyncIntervalMillis the longest time written events wait until they are forced to the
+   *                            disk, or 0 to force every batch as soon as it is written
+   * @return the journal
+   * @throws IOException if the file cannot be read or written
+   * @throws IllegalArgumentException if the file is no journal or the interval is negative
+   */
+  public static GameJournal open(Path file, long fsyncIntervalMillis) throws IOException {
+    requireNonNull(file);
+    if (fsyncIntervalMillis < 0) {
+      throw new IllegalArgumentException("Negative fsync interval");
+    }
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    long firstGameId;
+    try {
+      if (channel.size() < HEADER_SIZE) {
+        //a new journal, or one whose header was never completely written
+        channel.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(FORMAT_VERSION);
+        header.flip();
+        while (header.hasRemaining()) {
+          channel.write(header, HEADER_SIZE - header.remaining());
+        }
+        channel.force(true);
+        firstGameId = 1;
+      } else {
+        Replay replay = new Replay();
+        long end = replay.read(channel);
+        channel.truncate(end);
+        firstGameId = replay.maxGameId + 1;
+      }
+      channel.position(channel.size());
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+
+    GameJournal journal = new GameJournal(channel, firstGameId, fsyncIntervalMillis);
+    journal.writer.start();
+    return journal;
+  }
+
+  /**
+   * Get the journal shared by all sessions: the file named by the system property
+   * {@value #JOURNAL_FILE_PROPERTY}, whose fsync interval in milliseconds is set by
+   * {@value #FSYNC_INTERVAL_PROPERTY}. The journal is closed when the application exits.
+   *
+   * @return the shared journal, or an empty optional if no journal is configured or the file
+   *     cannot be used
+   */
+  public static Optional<GameJournal> getDefault() {
+    return Optional.ofNullable(Holder.INSTANCE);
+  }
+
+  /**
+   * Defers opening the configured journal until it is actually needed.
+   */
+  private static final class Holder {
+    private static final GameJournal INSTANCE = openConfigured();
+
+    private static GameJournal openConfigured() {
+      String configured = System.getProperty(JOURNAL_FILE_PROPERTY);
+      if (configured == null) {
+        return null;
+      }
+      try {
+        GameJournal journal = open(Paths.get(configured),
+            Long.getLong(FSYNC_INTERVAL_PROPERTY, DEFAULT_FSYNC_INTERVAL_MILLIS));
+        Runtime.getRuntime().addShutdownHook(new Thread(journal::closeQuietly));
+        return journal;
+      } catch (IOException | IllegalArgumentException e) {
+        // The journal is not essential for playing, the games are just not recorded
+        System.err.println("Warning: the journal " + configured + " cannot be used, games are not"
+            + " recorded: " + e.getMessage());
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Record the start of a game and the guesses it already has.
+   *
+   * @param game the game
+   * @return the id of the game in the journal, or 0 if the solution word of the game is no word
+   *     of five letters and the game is therefore not recorded
+   */
+  long startGame(Game game) {
+    GameState state = game.getState();
+    int solution = Dictionary.pack(state.getSolutionWord().reveal().getWord());
+    if (solution == Dictionary.NOT_FOUND) {
+      return 0;
+    }
+    long id = nextGameId.getAndIncrement();
+    append(new Event(NEW, id, solution, solution,
+        (byte) ((game.isHardMode() ? HARD_MODE : 0) | (game.isAdversarial() ? ADVERSARIAL : 0))));
+    for (Guess guess : game.getUserGuesses()) {
+      recordGuess(id, guess, solution);
+    }
+    if (state.getCurrentPhase() != Phase.RUNNING) {
+      recordEnd(id, state);
+    }
+    return id;
+  }
+
+  /**
+   * Record a guess.
+   *
+   * @param id       the id of the game
+   * @param guess    the guess
+   * @param solution the packed solution word after the guess
+   */
+  void recordGuess(long id, Guess guess, int solution) {
+    append(new Event(GUESS, id, Dictionary.pack(guess.getWord()), solution,
+        (byte) guess.getPattern()));
+  }
+
+  /**
+   * Record that a game was forfeited.
+   *
+   * @param id the id of the game
+   */
+  void recordForfeit(long id) {
+    append(new Event(FORFEIT, id, 0, 0, (byte) 0));
+  }
+
+  /**
+   * Record that a game ended.
+   *
+   * @param id    the id of the game
+   * @param state the final state of the game
+   */
+  void recordEnd(long id, GameState state) {
+    append(new Event(PHASE, id, state.getRemainingGuesses(), 0,
+        (byte) state.getCurrentPhase().ordinal()));
+  }
+
+  private void append(Event event) {
+    if (!closed && !broken) {
+      queue.add(event);
+    }
+  }
+
+  /**
+   * The loop of the writer thread: write everything that is queued as one batch, and force the
+   * written events to the disk once the oldest of them waited for the fsync interval. If a batch
+   * cannot be written, the file is cut back to the end of the last complete batch, so that the
+   * following batches start at a record boundary again.
+   */
+  private void writeEvents() {
+    List<Event> batch = new ArrayList<>(MAX_BATCH_SIZE);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_BATCH_SIZE * RECORD_SIZE);
+    long end;
+    try {
+      end = channel.position();
+    } catch (IOException e) {
+      failure = e;
+      broken = true;
+      return;
+    }
+    long syncDeadline = 0;
+    boolean unsynced = false;
+    boolean stopped = false;
+
+    while (!stopped) {
+      try {
+        Event first;
+        if (unsynced) {
+          first = queue.poll(syncDeadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } else {
+          first = queue.take();
+        }
+
+        if (first != null) {
+          batch.add(first);
+          queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+          buffer.clear();
+          for (Event event : batch) {
+            if (event == STOP) {
+              stopped = true;
+              break;
+            }
+            buffer.put(event.type).putLong(event.game).putInt(event.word)
+                .putInt(event.solution).put(event.value);
+          }
+          batch.clear();
+          buffer.flip();
+          if (buffer.hasRemaining()) {
+            while (buffer.hasRemaining()) {
+              channel.write(buffer);
+            }
+            end = channel.position();
+            if (!unsynced) {
+              unsynced = true;
+              syncDeadline = System.nanoTime() + fsyncIntervalNanos;
+            }
+          }
+        }
+
+        if (unsynced && (stopped || System.nanoTime() - syncDeadline >= 0)) {
+          channel.force(false);
+          unsynced = false;
+        }
+      } catch (IOException e) {
+        //the events of the failed batch are lost, later batches are still tried
+        batch.clear();
+        if (failure == null) {
+          failure = e;
+        }
+        try {
+          //drop the part of the batch that was written, it may end within a record
+          channel.truncate(end);
+          channel.position(end);
+        } catch (IOException truncateFailure) {
+          //the following records could not be read, so nothing is written anymore
+          broken = true;
+          stopped = true;
+        }
+      } catch (InterruptedException e) {
+        // only close stops the writer, and it does so with STOP
+      }
+    }
+  }
+
+  /**
+   * Write and force all events recorded so far and close the file. Events recorded afterwards
+   * are ignored.
+   *
+   * @throws IOException if the file cannot be written or an earlier batch could not be written
+   */
+  @Override
+  public void close() throws IOException {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+    }
+    queue.add(STOP);
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    channel.close();
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private void closeQuietly() {
+    try {
+      close();
+    } catch (IOException e) {
+      // the events of the failed batches are lost
+    }
+  }
+
+  /**
+   * Read a journal and restore every game that was not over when the journal ended. The restored
+   * games are not recorded in a journal again.
+   *
+   * @param file the file of the journal
+   * @param sink the sink that receives the output of the restored games
+   * @return the games that were not over by their id in the journal, in the order they were
+   *     started, without the games with impossible events
+   * @throws IOException if the file cannot be read
+   * @throws IllegalArgumentException if the file is no journal
+   */
+  public static Map<Long, Game> replay(Path file, OutputSink sink) throws IOException {
+    requireNonNull(sink);
+    Replay replay = new Replay();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      replay.read(channel);
+    } catch (NoSuchFileException e) {
+      return Collections.emptyMap();
+    }
+
+    Map<Long, Game> games = new LinkedHashMap<>();
+    char[] letters = new char[Game.NUMBER_OF_CHARS_IN_WORD];
+    for (Map.Entry<Long, ReplayedGame> entry : replay.games.entrySet()) {
+      try {
+        games.put(entry.getKey(), entry.getValue().restore(sink, letters));
+      } catch (IllegalArgumentException e) {
+        //a word or pattern was corrupted, the game is dropped like one with impossible events
+      }
+    }
+    return games;
+  }
+
+  /**
+   * Count the events of a journal.
+   *
+   * @param file the file of the journal
+   * @return the number of complete events, 0 if the file does not exist
+   * @throws IOException if the file cannot be read
+   */
+  public static long countEvents(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return Math.max(0, channel.size() - HEADER_SIZE) / RECORD_SIZE;
+    } catch (NoSuchFileException e) {
+      return 0;
+    }
+  }
+
+  /**
+   * The events of a game that is not over yet, kept as they are read without creating the game.
+   */
+  private static final class ReplayedGame {
+
+    private final boolean hardMode;
+    private final boolean adversarial;
+    private int solution;
+    private int[] guesses = new int[Game.NUMBER_OF_GUESSES + 1];
+    private byte[] patterns = new byte[Game.NUMBER_OF_GUESSES + 1];
+    private int guessCount;
+
+    private ReplayedGame(int solution, byte flags) {
+      this.solution = solution;
+      hardMode = (flags & HARD_MODE) != 0;
+      adversarial = (flags & ADVERSARIAL) != 0;
+    }
+
+    /**
+     * Add a guess.
+     *
+     * @return false if the game cannot have another guess
+     */
+    private boolean addGuess(int guess, byte pattern, int solutionAfterGuess) {
+      if (guessCount == guesses.length) {
+        return false;
+      }
+      guesses[guessCount] = guess;
+      patterns[guessCount] = pattern;
+      guessCount++;
+      solution = solutionAfterGuess;
+      return true;
+    }
+
+    /**
+     * Create the game.
+     *
+     * @throws IllegalArgumentException if a word or a pattern is invalid
+     */
+    private Game restore(OutputSink sink, char[] letters) {
+      unpack(solution, letters);
+      Game game = new Game(new String(letters), sink, hardMode, adversarial);
+      for (int i = 0; i < guessCount; i++) {
+        unpack(guesses[i], letters);
+        game.restoreGuess(new Guess(letters, patterns[i] & 0xFF));
+      }
+      return game;
+    }
+
+    private static void unpack(int packed, char[] letters) {
+      Dictionary.unpack(packed, letters);
+      if (packed == Dictionary.NOT_FOUND || Dictionary.pack(letters) != packed) {
+        throw new IllegalArgumentException("Invalid word in journal");
+      }
+    }
+  }
+
+  /**
+   * Reads the records of a journal and keeps the games that are not over.
+   */
+  private static final class Replay {
+
+    private final Map<Long, ReplayedGame> games = new LinkedHashMap<>();
+    private long maxGameId;
+
+    /**
+     * Read all complete records of a journal. A game with an impossible event is dropped.
+     *
+     * @return the position after the last complete record
+     */
+    private long read(FileChannel channel) throws IOException {
+      ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+      long position = 0;
+      while (buffer.position() < HEADER_SIZE) {
+        if (channel.read(buffer, position + buffer.position()) < 0) {
+          throw new IllegalArgumentException("The file is no journal");
+        }
+      }
+      buffer.flip();
+      if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+        throw new IllegalArgumentException("The file is no journal");
+      }
+      position = HEADER_SIZE;
+      buffer.compact();
+
+      do {
+        buffer.flip();
+        while (buffer.remaining() >= RECORD_SIZE) {
+          apply(buffer.get(), buffer.getLong(), buffer.getInt(), buffer.getInt(), buffer.get());
+          position += RECORD_SIZE;
+        }
+        buffer.compact();
+      } while (channel.read(buffer, position + buffer.position()) >= 0);
+      //a partial record at the end was cut off while it was written
+      return position;
+    }
+
+    private void apply(byte type, long id, int word, int solution, byte value) {
+      maxGameId = Math.max(maxGameId, id);
+      if (type == NEW) {
+        games.put(id, new ReplayedGame(solution, value));
+        return;
+      }
+      ReplayedGame game = games.get(id);
+      if (game == null) {
+        //the game is already over, or it was started in a journal that was cut off
+        return;
+      }
+      switch (type) {
+        case GUESS:
+          if (!game.addGuess(word, value, solution)) {
+            games.remove(id);
+          }
+          break;
+        case FORFEIT:
+          games.remove(id);
+          break;
+        case PHASE:
+          //an invalid phase drops the game just like the end of the game
+          if (value < 0 || value >= PHASES.length || PHASES[value] != Phase.RUNNING) {
+            games.remove(id);
+          }
+          break;
+        default:
+          //the record is corrupt, so the game cannot be restored correctly
+          games.remove(id);
+          break;
+      }
+    }
+  }
+}
@@ -0,0 +1,173 @@
+package org.sosylab.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * An immutable view of a game at one point in time. A game publishes a new snapshot after every
+ * change, so other threads can read a running game without locks while its player keeps
+ * guessing.
+ *
+ * <p>The guesses are kept as a chain from the latest guess back to the first one. A new snapshot
+ * only adds a link for its own guess and shares all earlier links with the snapshot before it, so
+ * publishing a snapshot never copies the history.
+ */
+public final class GameSnapshot {
+
+  /**
+   * A guess together with all guesses made before it.
+   */
+  private static final class Row {
+
+    private final Guess guess;
+    private final Row previous;
+    private final int count;
+
+    private Row(Guess guess, Row previous) {
+      this.guess = guess;
+      this.previous = previous;
+      count = previous == null ? 1 : previous.count + 1;
+    }
+  }
+
+  private final Row lastRow;
+  private final Phase phase;
+  private final int remainingGuesses;
+
+  /**
+   * The solution word, or null while the game is running.
+   */
+  private final String solution;
+
+  private GameSnapshot(Row lastRow, Phase phase, int remainingGuesses, String solution) {
+    this.lastRow = lastRow;
+    this.phase = requireNonNull(phase);
+    this.remainingGuesses = remainingGuesses;
+    this.solution = solution;
+  }
+
+  /**
+   * Create the snapshot of a new game without any guesses.
+   *
+   * @param numberOfGuesses the number of guesses the player has
+   * @return the snapshot
+   */
+  static GameSnapshot start(int numberOfGuesses) {
+    return new GameSnapshot(null, Phase.RUNNING, numberOfGuesses, null);
+  }
+
+  /**
+   * Create the snapshot after a guess. The guesses of this snapshot are shared, not copied.
+   *
+   * @param guess the guess that was made
+   * @param state the state of the game after the guess
+   * @return the new snapshot
+   */
+  GameSnapshot withGuess(Guess guess, GameState state) {
+    return of(new Row(requireNonNull(guess), lastRow), state);
+  }
+
+  /**
+   * Create the snapshot after a change of the state that did not add a guess.
+   *
+   * @param state the new state of the game
+   * @return the new snapshot
+   */
+  GameSnapshot withState(GameState state) {
+    return of(lastRow, state);
+  }
+
+  private static GameSnapshot of(Row lastRow, GameState state) {
+    Phase phase = state.getCurrentPhase();
+    String solution =
+        phase == Phase.RUNNING ? null : state.getSolutionWord().reveal().getWord();
+    return new GameSnapshot(lastRow, phase, state.getRemainingGuesses(), solution);
+  }
+
+  /**
+   * Get the phase of the game.
+   *
+   * @return the phase
+   */
+  public Phase getPhase() {
+    return phase;
+  }
+
+  /**
+   * Get the remaining guesses the player had.
+   *
+   * @return the remaining guesses
+   */
+  public int getRemainingGuesses() {
+    return remainingGuesses;
+  }
+
+  /**
+   * Get the number of guesses made.
+   *
+   * @return the number of guesses
+   */
+  public int getGuessCount() {
+    return lastRow == null ? 0 : lastRow.count;
+  }
+
+  /**
+   * Get a single guess.
+   *
+   * @param index the index of the guess, starting with 0 for the first guess
+   * @return the guess
+   * @throws IndexOutOfBoundsException if no such guess was made
+   */
+  public Guess getGuess(int index) {
+    int count = getGuessCount();
+    if (index < 0 || index >= count) {
+      throw new IndexOutOfBoundsException("No guess " + index + " in " + count + " guesses");
+    }
+    Row row = lastRow;
+    for (int i = count - 1; i > index; i--) {
+      row = row.previous;
+    }
+    return row.guess;
+  }
+
+  /**
+   * Get the latest guess.
+   *
+   * @return the latest guess, or an empty optional if no guess was made
+   */
+  public Optional<Guess> getLastGuess() {
+    return lastRow == null ? Optional.empty() : Optional.of(lastRow.guess);
+  }
+
+  /**
+   * Get all guesses made, in the order in which they were made. The list is a view of this
+   * snapshot and cannot be modified.
+   *
+   * @return the guesses
+   */
+  public List<Guess> getGuesses() {
+    return new AbstractList<>() {
+      @Override
+      public Guess get(int index) {
+        return getGuess(index);
+      }
+
+      @Override
+      public int size() {
+        return getGuessCount();
+      }
+    };
+  }
+
+  /**
+   * Get the solution word. It is only part of the snapshot once the game is over.
+   *
+   * @return the solution word, or an empty optional while the game is running
+   */
+  public Optional<String> getRevealedSolution() {
+    return Optional.ofNullable(solution);
+  }
+}
@@ -1,12 +1,14 @@
 package org.sosylab.model;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  * The game state contains the data specific to a single Wordle game.
  */
 
 public class GameState {
 
-  private final SolutionWord solutionWord;
+  private SolutionWord solutionWord;
   private final Countdown countdown;
 
   private Phase phase;
@@ -32,12 +34,13 @@ public class GameState {
    */
   private GameState(GameState state) {
     solutionWord = state.solutionWord;
-    countdown = state.countdown;
+    countdown = new Countdown(state.countdown);
     phase = state.phase;
   }
 
   /**
-   * Create a copy of this state that can be safely used for references.
+   * Create a copy of this state that can be safely used for references. Later changes of this
+   * state do not affect the copy.
    *
    * @return a copy of this state
    */
@@ -54,6 +57,16 @@ public class GameState {
     return solutionWord;
   }
 
+  /**
+   * Replace the solution word. This is only allowed for adversarial games, whose solution is not
+   * fixed until the end, and only with a word that is consistent with all guesses made so far.
+   *
+   * @param solutionWord the new word to guess
+   */
+  void setSolutionWord(SolutionWord solutionWord) {
+    this.solutionWord = requireNonNull(solutionWord);
+  }
+
   /**
    * Get the current {@link Phase} of the game.
    *
@@ -94,6 +107,25 @@ public class GameState {
     countdown.decrease();
   }
 
+  /**
+   * Set the phase and the remaining guesses of a restored game.
+   *
+   * @param phase            the phase of the game
+   * @param remainingGuesses the number of remaining guesses
+   */
+  void restore(Phase phase, int remainingGuesses) {
+    if (remainingGuesses < 0 || remainingGuesses > countdown.getValue()) {
+      throw new IllegalArgumentException("Invalid number of remaining guesses");
+    }
+    if (remainingGuesses == 0) {
+      countdown.setToZero();
+    }
+    while (countdown.getValue() > remainingGuesses) {
+      countdown.decrease();
+    }
+    this.phase = requireNonNull(phase);
+  }
+
   /**
    * Set the state of the game to {@link Phase#LOST}.
    */
@@ -0,0 +1,167 @@
+package org.sosylab.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Encodes the complete state of a game into a compact token, so that the game can be continued on
+ * any server that knows the same key.
+ *
+ * <p>A token contains a random nonce, the solution word, whether the game was forfeited, is
+ * played in hard mode or is adversarial and all guessed words, each word packed as in the
+ * {@link Dictionary}. The solution word is masked with a key stream derived from the nonce, so
+ * that clients cannot read it, and the whole token is authenticated with a truncated HMAC, so
+ * that clients cannot change it. Everything else about the game follows from replaying the
+ * guesses.
+ */
+public final class GameTokenCodec {
+
+  private static final String MAC_ALGORITHM = "HmacSHA256";
+  private static final byte VERSION = 1;
+  private static final int NONCE_LENGTH = Long.BYTES;
+  private static final int MAC_LENGTH = 16;
+  private static final int HEADER_LENGTH = 1 + NONCE_LENGTH + Integer.BYTES + 1 + 1;
+  private static final int FORFEITED = 1;
+  private static final int HARD_MODE = 2;
+  private static final int ADVERSARIAL = 4;
+
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  private final SecretKeySpec key;
+  private final ThreadLocal<Mac> macs;
+
+  /**
+   * Create a codec. All servers that should accept each other's tokens need the same key.
+   *
+   * @param key the secret key used to protect the tokens
+   */
+  public GameTokenCodec(byte[] key) {
+    requireNonNull(key);
+    if (key.length == 0) {
+      throw new IllegalArgumentException("The key may not be empty");
+    }
+    this.key = new SecretKeySpec(Arrays.copyOf(key, key.length), MAC_ALGORITHM);
+    this.macs = ThreadLocal.withInitial(this::createMac);
+  }
+
+  private Mac createMac() {
+    try {
+      Mac mac = Mac.getInstance(MAC_ALGORITHM);
+      mac.init(key);
+      return mac;
+    } catch (GeneralSecurityException e) {
+      // HmacSHA256 has to be supported by every Java platform
+      throw new AssertionError(e);
+    }
+  }
+
+  /**
+   * Encode a game into a token.
+   *
+   * @param game the game to encode
+   * @return the token, safe to use in URLs
+   */
+  public String encode(Game game) {
+    requireNonNull(game);
+    List<Guess> guesses = game.getUserGuesses();
+    GameState state = game.getState();
+
+    long nonce = ThreadLocalRandom.current().nextLong();
+    int solution = Dictionary.pack(state.getSolutionWord().reveal().getWord());
+    boolean forfeited = state.getCurrentPhase() == Phase.LOST
+        && guesses.size() <= Game.NUMBER_OF_GUESSES;
+
+    ByteBuffer buffer = ByteBuffer.allocate(
+        HEADER_LENGTH + guesses.size() * Integer.BYTES + MAC_LENGTH);
+    buffer.put(VERSION);
+    buffer.putLong(nonce);
+    buffer.putInt(solution ^ solutionMask(nonce));
+    buffer.put((byte) ((forfeited ? FORFEITED : 0) | (game.isHardMode() ? HARD_MODE : 0)
+        | (game.isAdversarial() ? ADVERSARIAL : 0)));
+    buffer.put((byte) guesses.size());
+    for (Guess guess : guesses) {
+      buffer.putInt(Dictionary.pack(guess.getWord()));
+    }
+
+    Mac mac = macs.get();
+    mac.update(buffer.array(), 0, buffer.position());
+    buffer.put(mac.doFinal(), 0, MAC_LENGTH);
+
+    return ENCODER.encodeToString(buffer.array());
+  }
+
+  /**
+   * Decode a token and restore the game it describes.
+   *
+   * @param token the token created by {@link #encode(Game)}
+   * @param sink  the sink that receives the output of the restored game
+   * @return the restored game
+   * @throws IllegalArgumentException if the token is malformed or was not created with this key
+   */
+  public Game decode(String token, OutputSink sink) {
+    requireNonNull(token);
+
+    byte[] data;
+    try {
+      data = DECODER.decode(token);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Malformed token", e);
+    }
+    if (data.length < HEADER_LENGTH + MAC_LENGTH || data[0] != VERSION) {
+      throw new IllegalArgumentException("Malformed token");
+    }
+
+    int contentLength = data.length - MAC_LENGTH;
+    Mac mac = macs.get();
+    mac.update(data, 0, contentLength);
+    byte[] expected = Arrays.copyOf(mac.doFinal(), MAC_LENGTH);
+    byte[] actual = Arrays.copyOfRange(data, contentLength, data.length);
+    if (!MessageDigest.isEqual(expected, actual)) {
+      throw new IllegalArgumentException("Invalid token");
+    }
+
+    ByteBuffer buffer = ByteBuffer.wrap(data, 1, contentLength - 1);
+    long nonce = buffer.getLong();
+    int solution = buffer.getInt() ^ solutionMask(nonce);
+    int flags = buffer.get();
+    boolean forfeited = (flags & FORFEITED) != 0;
+    int guessCount = buffer.get();
+    if (guessCount < 0 || buffer.remaining() != guessCount * Integer.BYTES) {
+      throw new IllegalArgumentException("Malformed token");
+    }
+
+    char[] letters = new char[Game.NUMBER_OF_CHARS_IN_WORD];
+    Dictionary.unpack(solution, letters);
+    Game game = new Game(new String(letters), sink, (flags & HARD_MODE) != 0,
+        (flags & ADVERSARIAL) != 0);
+    for (int i = 0; i < guessCount; i++) {
+      Dictionary.unpack(buffer.getInt(), letters);
+      if (game.guessWord(new String(letters)).isEmpty()) {
+        throw new IllegalArgumentException("Malformed token");
+      }
+    }
+    if (forfeited) {
+      game.forfeit();
+    }
+    return game;
+  }
+
+  /**
+   * Derive the mask that hides the solution word from the nonce of a token.
+   */
+  private int solutionMask(long nonce) {
+    Mac mac = macs.get();
+    mac.update(ByteBuffer.allocate(1 + Long.BYTES).put((byte) 0).putLong(nonce).array());
+    return ByteBuffer.wrap(mac.doFinal()).getInt();
+  }
+}
@@ -1,14 +1,16 @@
 package org.sosylab.model;
 
-import java.util.Arrays;
+import static java.util.Objects.requireNonNull;
 
 /**
- * A guess made by the user including the evaluation of the guess.
+ * A guess made by the user including the evaluation of the guess. A guess is immutable: it keeps
+ * the guessed word as a string and refers to the shared {@link FeedbackPattern} of its
+ * evaluation, so its letters and results can be read without copying anything.
  */
 public class Guess {
 
-  private final char[] guessedWord;
-  private final GuessResult[] results;
+  private final String guessedWord;
+  private final FeedbackPattern feedback;
 
   /**
    * Create a guess from the entered word and the results of the guess.
@@ -17,26 +19,97 @@ public class Guess {
    * @param results     an array of results
    */
   Guess(char[] guessedWord, GuessResult[] results) {
-    this.guessedWord = Arrays.copyOf(guessedWord, guessedWord.length);
-    this.results = Arrays.copyOf(results, results.length);
+    this(new String(guessedWord), FeedbackPattern.of(results));
+  }
+
+  /**
+   * Create a guess from the entered word and its packed evaluation.
+   *
+   * @param guessedWord the initial guess
+   * @param pattern     the results packed as a pattern, see {@link FeedbackMatrix}
+   */
+  Guess(char[] guessedWord, int pattern) {
+    this(new String(guessedWord), FeedbackPattern.of(pattern));
+  }
+
+  /**
+   * Create a guess from the entered word and its evaluation.
+   *
+   * @param guessedWord the initial guess
+   * @param feedback    the evaluation of the guess
+   */
+  Guess(String guessedWord, FeedbackPattern feedback) {
+    this.guessedWord = requireNonNull(guessedWord);
+    this.feedback = requireNonNull(feedback);
   }
 
   /**
    * Return the guessed word.
    *
-   * @return the guessed word
+   * @return a copy of the letters of the guessed word
    */
   public char[] getGuessedWord() {
-    return Arrays.copyOf(guessedWord, guessedWord.length);
+    return guessedWord.toCharArray();
+  }
+
+  /**
+   * Return the guessed word without copying it.
+   *
+   * @return the guessed word
+   */
+  public String getWord() {
+    return guessedWord;
+  }
+
+  /**
+   * Return a single letter of the guessed word.
+   *
+   * @param position the position of the letter
+   * @return the letter
+   */
+  public char charAt(int position) {
+    return guessedWord.charAt(position);
   }
 
   /**
    * Return the guess result.
    *
-   * @return the guess result
+   * @return a copy of the results of all letters
    */
   public GuessResult[] getResults() {
-    return Arrays.copyOf(results, results.length);
+    GuessResult[] results = new GuessResult[Game.NUMBER_OF_CHARS_IN_WORD];
+    for (int i = 0; i < results.length; i++) {
+      results[i] = feedback.resultAt(i);
+    }
+    return results;
+  }
+
+  /**
+   * Return the result of a single letter.
+   *
+   * @param position the position of the letter
+   * @return the result of the letter
+   */
+  public GuessResult resultAt(int position) {
+    return feedback.resultAt(position);
+  }
+
+  /**
+   * Return the evaluation of the guess.
+   *
+   * @return the shared evaluation
+   */
+  public FeedbackPattern getFeedback() {
+    return feedback;
+  }
+
+  /**
+   * Return the evaluation of the guess packed as a number.
+   *
+   * @return the pattern, see {@link FeedbackMatrix}
+   */
+  public int getPattern() {
+    return feedback.getPattern();
   }
 
   /**
@@ -45,32 +118,12 @@ public class Guess {
    * @return if this guess won the game
    */
   boolean isWinner() {
-    return Arrays.stream(results).allMatch(GuessResult.CORRECT::equals);
+    return feedback.isAllCorrect();
   }
 
   @Override
   public String toString() {
-    //create a StringBuilder object "builder"
-    StringBuilder builder = new StringBuilder();
-    for (int i = 0; i < Game.NUMBER_OF_CHARS_IN_WORD; i++) {
-      //if the letter is correct
-      if (results [i] == GuessResult.CORRECT) {
-        String y = "[" + guessedWord [i] + "]";
-        builder.append(y);
-      } else {
-        //if the letter is contained
-        if (results [i] == GuessResult.CONTAINED) {
-          String y = "(" + guessedWord [i] + ")";
-          builder.append(y);
-        } else {
-          //if the letter is wrong
-          String y = " " + guessedWord [i] + " ";
-          builder.append(y);
-        }
-      }
-    }
-    String updatedGuess = builder.toString();
-    return updatedGuess;
+    return BoardRenderer.appendCells(new StringBuilder(3 * guessedWord.length()), this).toString();
   }
 
 }
@@ -0,0 +1,56 @@
+package org.sosylab.model;
+
+/**
+ * A strategy that picks the next guess in a simulated game. Implementations are shared by all
+ * threads of a simulation and therefore have to be thread-safe.
+ */
+public interface GuessStrategy {
+
+  /**
+   * Choose the next guess.
+   *
+   * @param candidates     the ids of the solution words that are consistent with all feedback so
+   *                       far, in ascending order. The array may not be modified.
+   * @param candidateCount the number of valid entries in {@code candidates}
+   * @param turn           the number of guesses already made
+   * @return the id of the guess among the allowed words
+   */
+  int nextGuess(int[] candidates, int candidateCount, int turn);
+
+  /**
+   * Get a short name of the strategy for reports.
+   *
+   * @return the name
+   */
+  String getName();
+
+  /**
+   * A strategy that always guesses the first remaining candidate in alphabetical order.
+   *
+   * @return the strategy
+   */
+  static GuessStrategy firstCandidate() {
+    FeedbackMatrix matrix = FeedbackMatrix.getInstance();
+    return new GuessStrategy() {
+      @Override
+      public int nextGuess(int[] candidates, int candidateCount, int turn) {
+        return matrix.guessIdOfSolution(candidates[0]);
+      }
+
+      @Override
+      public String getName() {
+        return "first-candidate";
+      }
+    };
+  }
+
+  /**
+   * A strategy that asks the {@link Solver} for the best guess.
+   *
+   * @param objective the criterion guesses are rated by
+   * @return the strategy
+   */
+  static GuessStrategy solver(Solver.Objective objective) {
+    return new SolverStrategy(FeedbackMatrix.getInstance(), objective);
+  }
+}
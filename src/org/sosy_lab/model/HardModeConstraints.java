@@ -0,0 +1,112 @@
+package org.sosylab.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Arrays;
+
+/**
+ * The hints revealed in a game in hard mode, which every further guess has to use: letters found
+ * at their correct position have to stay there, and letters found in the word have to be used
+ * again, at least as often as they were found in a single guess.
+ *
+ * <p>The hints are compiled into a mask of the allowed letters for each position and the minimum
+ * number of each letter, so that checking a guess only takes a few bitwise operations.
+ */
+final class HardModeConstraints {
+
+  private static final int ALPHABET_SIZE = 26;
+  private static final int ALL_LETTERS = (1 << ALPHABET_SIZE) - 1;
+
+  private final int[] allowedAtPosition = new int[Game.NUMBER_OF_CHARS_IN_WORD];
+  private final int[] minimumCounts = new int[ALPHABET_SIZE];
+
+  /**
+   * The letters that have to occur at least once.
+   */
+  private int requiredLetters;
+
+  /**
+   * The letters that have to occur more than once. Their counts are only checked for guesses that
+   * contain them at all.
+   */
+  private int repeatedLetters;
+
+  /**
+   * Create constraints that allow every guess.
+   */
+  HardModeConstraints() {
+    Arrays.fill(allowedAtPosition, ALL_LETTERS);
+  }
+
+  /**
+   * Add the hints revealed by a guess.
+   *
+   * @param guess the evaluated guess
+   */
+  void add(Guess guess) {
+    requireNonNull(guess);
+    String letters = guess.getWord();
+    Game.throwErrorIfInvalidWordSize(letters.length());
+
+    for (int i = 0; i < Game.NUMBER_OF_CHARS_IN_WORD; i++) {
+      GuessResult result = guess.resultAt(i);
+      if (result == GuessResult.WRONG) {
+        continue;
+      }
+      int bit = Keyboard.letterBit(letters.charAt(i));
+      if (result == GuessResult.CORRECT) {
+        allowedAtPosition[i] = bit;
+      }
+
+      //count how often the letter was found in this guess
+      int count = 0;
+      for (int j = 0; j < Game.NUMBER_OF_CHARS_IN_WORD; j++) {
+        if (letters.charAt(j) == letters.charAt(i) && guess.resultAt(j) != GuessResult.WRONG) {
+          count++;
+        }
+      }
+      int letter = letters.charAt(i) - 'a';
+      minimumCounts[letter] = Math.max(minimumCounts[letter], count);
+      requiredLetters |= bit;
+      if (count > 1) {
+        repeatedLetters |= bit;
+      }
+    }
+  }
+
+  /**
+   * Check whether a guess uses all hints.
+   *
+   * @param word the guessed word, consisting of {@link Game#NUMBER_OF_CHARS_IN_WORD} letters in
+   *             any case
+   * @return true if the guess may be made
+   */
+  boolean isSatisfiedBy(CharSequence word) {
+    int usedLetters = 0;
+    for (int i = 0; i < Game.NUMBER_OF_CHARS_IN_WORD; i++) {
+      int bit = Keyboard.letterBit(Character.toLowerCase(word.charAt(i)));
+      if ((allowedAtPosition[i] & bit) == 0) {
+        return false;
+      }
+      usedLetters |= bit;
+    }
+    if ((requiredLetters & ~usedLetters) != 0) {
+      return false;
+    }
+
+    //only letters that have to occur more than once need to be counted
+    for (int letters = repeatedLetters; letters != 0; letters &= letters - 1) {
+      char letter = (char) ('a' + Integer.numberOfTrailingZeros(letters));
+      int count = 0;
+      for (int i = 0; i < Game.NUMBER_OF_CHARS_IN_WORD; i++) {
+        if (Character.toLowerCase(word.charAt(i)) == letter) {
+          count++;
+        }
+      }
+      if (count < minimumCounts[letter - 'a']) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,53 @@
+package org.sosylab.model;
+
+/**
+ * A guess suggested by the {@link Solver} together with its rating.
+ */
+public class Hint {
+
+  private final String word;
+  private final double score;
+  private final boolean possibleSolution;
+
+  /**
+   * Create a new hint.
+   *
+   * @param word             the suggested guess
+   * @param score            the rating of the guess according to the objective of the solver
+   * @param possibleSolution whether the guess could be the solution word itself
+   */
+  Hint(String word, double score, boolean possibleSolution) {
+    this.word = word;
+    this.score = score;
+    this.possibleSolution = possibleSolution;
+  }
+
+  /**
+   * Get the suggested guess.
+   *
+   * @return the word to guess
+   */
+  public String getWord() {
+    return word;
+  }
+
+  /**
+   * Get the rating of the guess. For {@link Solver.Objective#ENTROPY} this is the expected
+   * information gain in bits, for {@link Solver.Objective#WORST_CASE} the number of candidates that
+   * remain in the worst case.
+   *
+   * @return the score
+   */
+  public double getScore() {
+    return score;
+  }
+
+  /**
+   * Check whether the guess is still a possible solution word.
+   *
+   * @return true if the guess could win the game
+   */
+  public boolean isPossibleSolution() {
+    return possibleSolution;
+  }
+}
@@ -2,15 +2,16 @@ package org.sosylab.model;
 
 import static java.util.Objects.requireNonNull;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Optional;
 
 /**
  * The keyboard shows a player the remaining available letters.
  * If a letter turns out to not be part of a word, it gets removed from the
  * keyboard.
+ *
+ * <p>Each set of letters is stored as a bit mask with one bit per letter from 'a' to 'z'.
  */
-class Keyboard {
+public class Keyboard {
 
   private static final String[] INITIAL_LAYOUT = {
       "q,w,e,r,t,z,u,i,o,p",
@@ -18,10 +19,51 @@ class Keyboard {
       "y,x,c,v,b,n,m"
   };
 
-  private final Set<String> deactivatedLetters;
+  /**
+   * The rendered layout with all letters present.
+   */
+  private static final char[] TEMPLATE;
+
+  /**
+   * The bit of the letter at each position of the template, or 0 for spaces and line breaks.
+   */
+  private static final int[] LETTER_BITS;
+
+  static {
+    StringBuilder template = new StringBuilder();
+    for (String row : INITIAL_LAYOUT) {
+      template.append(row.replace(',', ' ')).append('\n');
+    }
+    TEMPLATE = template.toString().toCharArray();
+
+    LETTER_BITS = new int[TEMPLATE.length];
+    for (int i = 0; i < TEMPLATE.length; i++) {
+      LETTER_BITS[i] = letterBit(TEMPLATE[i]);
+    }
+  }
+
+  private final char[] buffer = new char[TEMPLATE.length];
+  private int absentLetters;
+  private int presentLetters;
+  private int correctLetters;
+
+  private String rendered;
+  private int renderedLetters = -1;
 
   Keyboard() {
-    deactivatedLetters = new HashSet<>();
+  }
+
+  /**
+   * Get the bit that represents a letter in a mask.
+   *
+   * @param letter the letter in lower case
+   * @return the bit, or 0 if the character is no letter
+   */
+  static int letterBit(char letter) {
+    if (letter < 'a' || letter > 'z') {
+      return 0;
+    }
+    return 1 << (letter - 'a');
   }
 
   /**
@@ -31,68 +73,85 @@ class Keyboard {
    */
   void updateKeyboard(Guess guess) {
     requireNonNull(guess);
-    Game.throwErrorIfInvalidWordSize(guess.getGuessedWord().length);
+    Game.throwErrorIfInvalidWordSize(guess.getWord().length());
 
-    Set<String> lettersToRemove = new HashSet<>();
     for (int i = 0; i < Game.NUMBER_OF_CHARS_IN_WORD; i++) {
-      if (guess.getResults()[i] == GuessResult.WRONG) {
-        lettersToRemove.add(String.valueOf(guess.getGuessedWord()[i]));
+      int bit = letterBit(guess.charAt(i));
+      switch (guess.resultAt(i)) {
+        case CORRECT:
+          correctLetters |= bit;
+          break;
+        case CONTAINED:
+          presentLetters |= bit;
+          break;
+        default:
+          absentLetters |= bit;
+          break;
       }
     }
+  }
 
-    for (String row : INITIAL_LAYOUT) {
-      String[] letters = row.split(",");
-      for (String letter : letters) {
-        if (lettersToRemove.contains(letter)) {
-          deactivatedLetters.add(letter);
-        }
-      }
-    }
+  /**
+   * Get the letters that were guessed at their correct position at least once.
+   *
+   * @return a mask with bit {@code c - 'a'} set for each letter {@code c}
+   */
+  public int getCorrectLetters() {
+    return correctLetters;
   }
 
-  @Override
-  public String toString() {
-    // create a StringBuilder object "builder"
-    StringBuilder builder = new StringBuilder();
-
-    //divide the initial keyboard layout into three lines
-    //append the initial keyboard layout to builder
-    for (int i = 0; i < INITIAL_LAYOUT.length; i++) {
-      String x = INITIAL_LAYOUT[i] + "\n";
-      builder.append(x);
-    }
-    //remove the "," in the first line of the initial keyboard
-    for (int i = 1; i < 19; i = i + 2) {
-      builder.replace(i, i + 1, " ");
+  /**
+   * Get the letters that are known to be part of the word, but were not yet guessed at their
+   * correct position.
+   *
+   * @return a mask with bit {@code c - 'a'} set for each letter {@code c}
+   */
+  public int getPresentLetters() {
+    return presentLetters & ~correctLetters;
+  }
+
+  /**
+   * Get the letters that were never found in the word.
+   *
+   * @return a mask with bit {@code c - 'a'} set for each letter {@code c}
+   */
+  public int getAbsentLetters() {
+    return absentLetters & ~(presentLetters | correctLetters);
+  }
+
+  /**
+   * Get the best known state of a letter, where correct beats contained and contained beats
+   * wrong.
+   *
+   * @param letter the letter in lower case
+   * @return the state, or an empty optional if the letter was not guessed yet
+   */
+  public Optional<GuessResult> getLetterState(char letter) {
+    int bit = letterBit(letter);
+    if ((correctLetters & bit) != 0) {
+      return Optional.of(GuessResult.CORRECT);
     }
-    //remove the "," in the second line of the initial keyboard
-    for (int i = 21; i < 37; i = i + 2) {
-      builder.replace(i, i + 1, " ");
+    if ((presentLetters & bit) != 0) {
+      return Optional.of(GuessResult.CONTAINED);
     }
-    //remove the "," in the last line of the initial keyboard
-    for (int i = 39; i < 51; i = i + 2) {
-      builder.replace(i, i + 1, " ");
+    if ((absentLetters & bit) != 0) {
+      return Optional.of(GuessResult.WRONG);
     }
+    return Optional.empty();
+  }
 
-    //remove letters that are wrong from the keyboard
-    //check whether any letter should be removed
-    //print initial keyboard if no letters should be removed
-    if (deactivatedLetters.isEmpty()) {
-      String keyBoardOutput = builder.toString();
-      return keyBoardOutput;
-
-    } else {
-      //remove wrong letters from initial keyboard
-      for (int i = 0; i < builder.length(); i++) {
-        String deleteLetter = builder.substring(i, i + 1);
-        if (deactivatedLetters.contains(deleteLetter)) {
-          builder.replace(builder.indexOf(deleteLetter), builder.indexOf(deleteLetter) + 1, " ");
-        }
+  @Override
+  public String toString() {
+    //every letter that was wrong in any guess is removed, even if it is contained elsewhere
+    //the layout only changes when letters are removed
+    if (absentLetters != renderedLetters) {
+      //copy the layout and blank out the letters that are wrong
+      for (int i = 0; i < TEMPLATE.length; i++) {
+        buffer[i] = (absentLetters & LETTER_BITS[i]) != 0 ? ' ' : TEMPLATE[i];
       }
-      //print updated keyboard
-      String keyBoardOutput = builder.toString();
-      return keyBoardOutput;
+      rendered = new String(buffer);
+      renderedLetters = absentLetters;
     }
+    return rendered;
   }
 }
-
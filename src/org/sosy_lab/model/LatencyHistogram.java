@@ -0,0 +1,81 @@
+package org.sosylab.model;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts durations in buckets whose width grows with the duration, so that every recorded value
+ * is known to within a quarter of its size. Every bucket is a striped counter, so threads that
+ * record at the same time do not contend and recording does not create any objects once the
+ * stripes exist.
+ */
+final class LatencyHistogram {
+
+  /**
+   * Every power of two is split into {@code 1 << SUB_BUCKET_BITS} buckets.
+   */
+  private static final int SUB_BUCKET_BITS = 2;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  LatencyHistogram() {
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Record a duration.
+   *
+   * @param nanos the duration in nanoseconds, negative durations are counted as zero
+   */
+  void record(long nanos) {
+    long value = Math.max(0, nanos);
+    buckets[bucketOf(value)].increment();
+    sum.add(value);
+    max.accumulate(value);
+  }
+
+  /**
+   * Get the bucket of a value: small values have a bucket each, larger values are grouped by their
+   * highest bit and the {@link #SUB_BUCKET_BITS} bits below it.
+   */
+  static int bucketOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  /**
+   * Get the largest value that falls into a bucket.
+   */
+  static long upperBoundOf(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = bucket / SUB_BUCKETS - 1;
+    long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    return lower + (1L << shift) - 1;
+  }
+
+  /**
+   * Take a snapshot of the recorded durations. Durations recorded while the snapshot is taken may
+   * or may not be part of it.
+   *
+   * @return the snapshot
+   */
+  LatencySnapshot snapshot() {
+    long[] counts = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts[i] = buckets[i].sum();
+    }
+    return new LatencySnapshot(counts, sum.sum(), max.get());
+  }
+}
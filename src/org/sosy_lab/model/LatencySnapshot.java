@@ -0,0 +1,72 @@
+package org.sosylab.model;
+
+/**
+ * The durations recorded for a {@link Metric} at one point in time. All durations are in
+ * nanoseconds, percentiles are accurate to within a quarter of their value.
+ */
+public final class LatencySnapshot {
+
+  private final long[] counts;
+  private final long count;
+  private final long sum;
+  private final long max;
+
+  LatencySnapshot(long[] counts, long sum, long max) {
+    this.counts = counts;
+    long total = 0;
+    for (long bucket : counts) {
+      total += bucket;
+    }
+    this.count = total;
+    this.sum = sum;
+    this.max = max;
+  }
+
+  /**
+   * Get the number of recorded durations.
+   *
+   * @return the number of durations
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Get the average duration.
+   *
+   * @return the mean in nanoseconds, or 0 if nothing was recorded
+   */
+  public double getMean() {
+    return count == 0 ? 0 : (double) sum / count;
+  }
+
+  /**
+   * Get the longest duration.
+   *
+   * @return the maximum in nanoseconds
+   */
+  public long getMax() {
+    return max;
+  }
+
+  /**
+   * Get the duration that the given share of all durations does not exceed.
+   *
+   * @param percentile the share in percent, between 0 and 100
+   * @return the percentile in nanoseconds, or 0 if nothing was recorded
+   */
+  public long getPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("The percentile has to be between 0 and 100");
+    }
+    long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+    long seen = 0;
+    for (int bucket = 0; bucket < counts.length; bucket++) {
+      seen += counts[bucket];
+      if (seen >= rank) {
+        return Math.min(LatencyHistogram.upperBoundOf(bucket), max);
+      }
+    }
+    return 0;
+  }
+}
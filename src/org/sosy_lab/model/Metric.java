@@ -0,0 +1,157 @@
+package org.sosylab.model;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The operations whose durations are measured. Each metric keeps a {@link LatencyHistogram} that
+ * is shared by all threads.
+ *
+ * <p>A measurement is taken with
+ * <pre>
+ *   long start = Metric.start();
+ *   ...
+ *   Metric.GAME_GUESS.record(start);
+ * </pre>
+ * The measurements can be switched off by setting the system property
+ * {@value #ENABLED_PROPERTY} to {@code false}, which removes their cost completely.
+ */
+public enum Metric {
+
+  /**
+   * Executing a command of the shell.
+   */
+  SHELL_COMMAND("shell.command"),
+  /**
+   * Making a guess in a game, including scoring and rendering.
+   */
+  GAME_GUESS("game.guess"),
+  /**
+   * Scoring a guess against the solution word.
+   */
+  SCORE_GUESS("score.guess"),
+  /**
+   * Loading the word lists.
+   */
+  LOAD_WORDS("words.load"),
+  /**
+   * Rendering the board.
+   */
+  RENDER_BOARD("render.board");
+
+  private static final String ENABLED_PROPERTY = "wordle.metrics";
+  private static final boolean ENABLED = !"false".equals(System.getProperty(ENABLED_PROPERTY));
+  private static final String DOMAIN = "org.sosylab";
+
+  private final String displayName;
+  private final LatencyHistogram histogram = new LatencyHistogram();
+
+  Metric(String displayName) {
+    this.displayName = displayName;
+  }
+
+  /**
+   * Get the time at which a measurement starts.
+   *
+   * @return the start time to pass to {@link #record(long)}
+   */
+  public static long start() {
+    return ENABLED ? System.nanoTime() : 0;
+  }
+
+  /**
+   * Record the duration of an operation that started at the given time.
+   *
+   * @param startNanos the time returned by {@link #start()}
+   */
+  public void record(long startNanos) {
+    if (ENABLED) {
+      histogram.record(System.nanoTime() - startNanos);
+    }
+  }
+
+  /**
+   * Get the name of the metric as shown to users.
+   *
+   * @return the name
+   */
+  public String getDisplayName() {
+    return displayName;
+  }
+
+  /**
+   * Take a snapshot of the durations recorded so far.
+   *
+   * @return the snapshot
+   */
+  public LatencySnapshot snapshot() {
+    return histogram.snapshot();
+  }
+
+  /**
+   * Publish all metrics on the platform MBean server under the domain {@value #DOMAIN}. Metrics
+   * that are already published are skipped.
+   */
+  public static void registerMBeans() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    for (Metric metric : values()) {
+      try {
+        server.registerMBean(new MBean(metric),
+            new ObjectName(DOMAIN, "name", metric.displayName));
+      } catch (InstanceAlreadyExistsException e) {
+        // registered before, the bean reads the same histogram
+      } catch (JMException e) {
+        // the names and beans are fixed, so this is a bug in the implementation
+        throw new AssertionError(e);
+      }
+    }
+  }
+
+  /**
+   * Publishes a metric over JMX. Every read of an attribute takes a new snapshot.
+   */
+  private static final class MBean implements MetricMXBean {
+
+    private static final double NANOS_PER_MICRO = TimeUnit.MICROSECONDS.toNanos(1);
+
+    private final Metric metric;
+
+    MBean(Metric metric) {
+      this.metric = metric;
+    }
+
+    @Override
+    public long getCount() {
+      return metric.snapshot().getCount();
+    }
+
+    @Override
+    public double getMean() {
+      return metric.snapshot().getMean() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getMedian() {
+      return metric.snapshot().getPercentile(50) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double get90thPercentile() {
+      return metric.snapshot().getPercentile(90) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double get99thPercentile() {
+      return metric.snapshot().getPercentile(99) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getMax() {
+      return metric.snapshot().getMax() / NANOS_PER_MICRO;
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package org.sosylab.model;
+
+/**
+ * The management interface through which a {@link Metric} is published over JMX. All durations
+ * are in microseconds.
+ */
+public interface MetricMXBean {
+
+  /**
+   * Get the number of recorded durations.
+   *
+   * @return the number of durations
+   */
+  long getCount();
+
+  /**
+   * Get the average duration.
+   *
+   * @return the mean in microseconds
+   */
+  double getMean();
+
+  /**
+   * Get the median duration.
+   *
+   * @return the median in microseconds
+   */
+  double getMedian();
+
+  /**
+   * Get the 90th percentile of the durations.
+   *
+   * @return the percentile in microseconds
+   */
+  double get90thPercentile();
+
+  /**
+   * Get the 99th percentile of the durations.
+   *
+   * @return the percentile in microseconds
+   */
+  double get99thPercentile();
+
+  /**
+   * Get the longest duration.
+   *
+   * @return the maximum in microseconds
+   */
+  double getMax();
+}
@@ -0,0 +1,309 @@
+package org.sosylab.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Arrays;
+
+/**
+ * Manages a game in which several words are guessed at once, like Dordle or Quordle. Every guess
+ * is made on all boards whose word has not been found yet, and the game is won once every word is
+ * found. Each additional board allows one more guess.
+ *
+ * <p>A guess is scored in a single pass over the unsolved boards: the letters of the guess are
+ * looked at once, and the evaluation for every board is written into one shared table instead of
+ * creating a {@link Guess} per board. The boards are rendered side by side, a few per line, and
+ * each frame is handed to the sink as a whole.
+ */
+public final class MultiBoardGame {
+
+  /**
+   * The fewest boards of a game.
+   */
+  public static final int MIN_BOARDS = 2;
+
+  /**
+   * The most boards of a game, so that all boards still fit on a screen. The unsolved boards are
+   * kept as the bits of a {@code long}, which is therefore always enough.
+   */
+  public static final int MAX_BOARDS = 32;
+
+  private static final int BOARDS_PER_LINE = 4;
+  private static final String LINE_SEPARATOR = System.lineSeparator();
+  private static final String BOARD_SEPARATOR = "  ";
+  private static final String EMPTY_CELLS = " _  _  _  _  _ ";
+
+  /**
+   * The width of a board, which is one more than {@link #EMPTY_CELLS} because of the space in
+   * front of every row of guesses.
+   */
+  private static final String BLANK_CELLS = " ".repeat(1 + EMPTY_CELLS.length());
+
+  private final int boardCount;
+  private final int maxGuesses;
+  private final char[][] solutions;
+
+  /**
+   * The letters of each solution as a mask of {@link Keyboard#letterBit(char)}, so that boards
+   * without a letter of the guess are scored without comparing letters.
+   */
+  private final int[] solutionMasks;
+
+  /**
+   * The guesses made so far in lower case.
+   */
+  private final char[][] guesses;
+
+  /**
+   * The evaluation of every guess on every board, see {@link FeedbackMatrix}. The evaluations of
+   * a guess are stored next to each other, one per board. Boards that were already solved are
+   * left out.
+   */
+  private final byte[] patterns;
+
+  /**
+   * The number of the guess that found the word of each board, or -1 if it was not found yet.
+   */
+  private final int[] solvedBy;
+
+  /**
+   * The boards whose word was not found yet, one bit per board.
+   */
+  private long unsolved;
+  private int guessCount;
+  private Phase phase = Phase.RUNNING;
+
+  private final OutputSink sink;
+  private final StringBuilder frame;
+
+  /**
+   * Create a new game with distinct random solution words.
+   *
+   * @param boardCount the number of boards between {@link #MIN_BOARDS} and {@link #MAX_BOARDS}
+   * @param sink       the sink that receives the rendered boards
+   * @throws IllegalArgumentException if the number of boards is out of range
+   */
+  public MultiBoardGame(int boardCount, OutputSink sink) {
+    if (boardCount < MIN_BOARDS || boardCount > MAX_BOARDS) {
+      throw new IllegalArgumentException(
+          "A game must have between " + MIN_BOARDS + " and " + MAX_BOARDS + " boards");
+    }
+    this.sink = requireNonNull(sink);
+    this.boardCount = boardCount;
+    maxGuesses = boardCount + Game.NUMBER_OF_GUESSES - 1;
+
+    Dictionary words = WordProvider.getSolutions();
+    int[] ids = new int[boardCount];
+    solutions = new char[boardCount][Game.NUMBER_OF_CHARS_IN_WORD];
+    solutionMasks = new int[boardCount];
+    for (int board = 0; board < boardCount; board++) {
+      ids[board] = drawNewId(ids, board);
+      words.getLetters(ids[board], solutions[board]);
+      solutionMasks[board] = letterMask(solutions[board]);
+    }
+
+    guesses = new char[maxGuesses][Game.NUMBER_OF_CHARS_IN_WORD];
+    patterns = new byte[maxGuesses * boardCount];
+    solvedBy = new int[boardCount];
+    Arrays.fill(solvedBy, -1);
+    unsolved = (1L << boardCount) - 1;
+
+    int lines = maxGuesses + 3;
+    frame = new StringBuilder(lines * (BOARDS_PER_LINE * (EMPTY_CELLS.length() + 2)
+        + LINE_SEPARATOR.length()) * ((boardCount + BOARDS_PER_LINE - 1) / BOARDS_PER_LINE));
+  }
+
+  private static int drawNewId(int[] drawn, int count) {
+    while (true) {
+      int id = WordProvider.drawRandomSolutionId();
+      boolean isNew = true;
+      for (int i = 0; i < count; i++) {
+        if (drawn[i] == id) {
+          isNew = false;
+        }
+      }
+      if (isNew) {
+        return id;
+      }
+    }
+  }
+
+  private static int letterMask(char[] letters) {
+    int mask = 0;
+    for (char letter : letters) {
+      mask |= Keyboard.letterBit(letter);
+    }
+    return mask;
+  }
+
+  /**
+   * Make a guess on all boards whose word has not been found yet.
+   *
+   * @param word the word that was guessed
+   * @return true if the guess was legal, false if it is no allowed word
+   * @throws IllegalStateException if the game is over
+   */
+  public boolean guessWord(String word) {
+    if (phase != Phase.RUNNING) {
+      throw new IllegalStateException("The game is over");
+    }
+    if (!WordProvider.isValidWord(word)) {
+      return false;
+    }
+
+    long start = Metric.start();
+    char[] letters = guesses[guessCount];
+    for (int i = 0; i < Game.NUMBER_OF_CHARS_IN_WORD; i++) {
+      letters[i] = Character.toLowerCase(word.charAt(i));
+    }
+    int guessMask = letterMask(letters);
+
+    //score the guess on every unsolved board in one pass over the shared table
+    int offset = guessCount * boardCount;
+    long remaining = unsolved;
+    while (remaining != 0) {
+      int board = Long.numberOfTrailingZeros(remaining);
+      remaining &= remaining - 1;
+      int pattern = (guessMask & solutionMasks[board]) == 0
+          ? 0
+          : SolutionWord.score(letters, solutions[board]);
+      patterns[offset + board] = (byte) pattern;
+      if (pattern == FeedbackMatrix.ALL_CORRECT) {
+        solvedBy[board] = guessCount;
+        unsolved &= ~(1L << board);
+      }
+    }
+    guessCount++;
+
+    if (unsolved == 0) {
+      phase = Phase.WON;
+    } else if (guessCount == maxGuesses) {
+      phase = Phase.LOST;
+    }
+    render();
+    Metric.GAME_GUESS.record(start);
+    return true;
+  }
+
+  /**
+   * Forfeit the game. The boards are output with the words that were not found.
+   */
+  public void forfeit() {
+    phase = Phase.LOST;
+    render();
+  }
+
+  /**
+   * Output the current boards.
+   */
+  public void printBoard() {
+    render();
+  }
+
+  /**
+   * Render the boards, a few of them side by side per line, followed by the progress of the game.
+   * While the game is running, every unsolved board gets an empty row for the next guess. Once the
+   * game is lost, the words that were not found are shown instead.
+   */
+  private void render() {
+    if (sink == OutputSink.DISCARD) {
+      return;
+    }
+    long start = Metric.start();
+    frame.setLength(0);
+    for (int first = 0; first < boardCount; first += BOARDS_PER_LINE) {
+      int last = Math.min(first + BOARDS_PER_LINE, boardCount);
+      if (first > 0) {
+        frame.append(LINE_SEPARATOR);
+      }
+      for (int guess = 0; guess < guessCount; guess++) {
+        for (int board = first; board < last; board++) {
+          appendSeparator(board, first);
+          if (isSolvedBefore(board, guess)) {
+            frame.append(BLANK_CELLS);
+          } else {
+            BoardRenderer.appendCells(frame.append(' '), guesses[guess],
+                patterns[guess * boardCount + board] & 0xFF);
+          }
+        }
+        endLine();
+      }
+      if (phase != Phase.WON) {
+        for (int board = first; board < last; board++) {
+          appendSeparator(board, first);
+          if (solvedBy[board] >= 0) {
+            frame.append(BLANK_CELLS);
+          } else if (phase == Phase.RUNNING) {
+            frame.append(' ').append(EMPTY_CELLS);
+          } else {
+            BoardRenderer.appendCells(frame.append(' '), solutions[board],
+                FeedbackMatrix.ALL_CORRECT);
+          }
+        }
+        endLine();
+      }
+    }
+    frame.append("Solved ").append(getSolvedCount()).append('/').append(boardCount)
+        .append(", ").append(getRemainingGuesses()).append(" guesses left")
+        .append(LINE_SEPARATOR);
+    sink.write(frame);
+    Metric.RENDER_BOARD.record(start);
+  }
+
+  private boolean isSolvedBefore(int board, int guess) {
+    return solvedBy[board] >= 0 && solvedBy[board] < guess;
+  }
+
+  private void appendSeparator(int board, int first) {
+    if (board > first) {
+      frame.append(BOARD_SEPARATOR);
+    }
+  }
+
+  /**
+   * End a line of the frame without the blanks of solved boards at its end.
+   */
+  private void endLine() {
+    int end = frame.length();
+    while (end > 0 && frame.charAt(end - 1) == ' ') {
+      end--;
+    }
+    frame.setLength(end);
+    frame.append(LINE_SEPARATOR);
+  }
+
+  /**
+   * Get the number of boards.
+   *
+   * @return the number of boards
+   */
+  public int getBoardCount() {
+    return boardCount;
+  }
+
+  /**
+   * Get the number of boards whose word was found.
+   *
+   * @return the number of solved boards
+   */
+  public int getSolvedCount() {
+    return boardCount - Long.bitCount(unsolved);
+  }
+
+  /**
+   * Get the number of guesses left.
+   *
+   * @return the number of remaining guesses
+   */
+  public int getRemainingGuesses() {
+    return maxGuesses - guessCount;
+  }
+
+  /**
+   * Get the phase of the game.
+   *
+   * @return the current phase
+   */
+  public Phase getPhase() {
+    return phase;
+  }
+}
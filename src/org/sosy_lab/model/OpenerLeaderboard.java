@@ -0,0 +1,299 @@
+package org.sosylab.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Rates every allowed word as the first guess against all solution words. For every opener, the
+ * solution words are split into groups that give the same evaluation, and the leaderboard reports
+ * how many solution words remain on average, the entropy of the evaluation, the size of the
+ * largest group and the number of groups.
+ *
+ * <p>The openers are rated in chunks on several threads. Each chunk is appended to a CSV file as
+ * soon as it is done, so the file also serves as a checkpoint: when the leaderboard is computed
+ * again with the same file, the openers found in it are skipped and a row cut off by an
+ * interruption is dropped.
+ */
+public final class OpenerLeaderboard {
+
+  static final String CSV_HEADER = "opener,expected_remaining,entropy,worst_case,patterns";
+
+  private static final int OPENERS_PER_TASK = 64;
+  private static final int COLUMN_COUNT = 5;
+  private static final double LOG_2 = Math.log(2);
+
+  private OpenerLeaderboard() {
+  }
+
+  /**
+   * Rate every allowed word that is not in the CSV file yet and append the results to it. The file
+   * is created if it does not exist.
+   *
+   * @param csv     the file that receives the results
+   * @param threads the number of threads that rate openers
+   * @return the ratings of all openers, both from earlier runs and from this one
+   * @throws IOException if the file cannot be read or written
+   * @throws IllegalArgumentException if the file exists but is no leaderboard
+   */
+  public static List<Entry> compute(Path csv, int threads) throws IOException {
+    requireNonNull(csv);
+    if (threads <= 0) {
+      throw new IllegalArgumentException("At least one thread is required");
+    }
+    List<Entry> entries = resume(csv);
+    Set<String> rated = new HashSet<>();
+    for (Entry entry : entries) {
+      rated.add(entry.getOpener());
+    }
+
+    Dictionary allowedWords = WordProvider.getAllowedWords();
+    List<String> openers = new ArrayList<>();
+    for (int id = 0; id < allowedWords.size(); id++) {
+      String word = allowedWords.getWord(id);
+      if (!rated.contains(word)) {
+        openers.add(word);
+      }
+    }
+    BulkScorer scorer = BulkScorer.of(WordProvider.getSolutions());
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND)) {
+      CompletionService<List<Entry>> completion = new ExecutorCompletionService<>(executor);
+      int tasks = 0;
+      for (int from = 0; from < openers.size(); from += OPENERS_PER_TASK) {
+        List<String> chunk = openers.subList(from, Math.min(from + OPENERS_PER_TASK,
+            openers.size()));
+        completion.submit(() -> rateAll(chunk, scorer));
+        tasks++;
+      }
+
+      //write the chunks in the order they finish, each one completely or not at all
+      StringBuilder rows = new StringBuilder();
+      for (int i = 0; i < tasks; i++) {
+        List<Entry> chunk = completion.take().get();
+        rows.setLength(0);
+        for (Entry entry : chunk) {
+          rows.append(entry.toCsv()).append('\n');
+        }
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(rows.toString());
+        while (bytes.hasRemaining()) {
+          channel.write(bytes);
+        }
+        channel.force(false);
+        entries.addAll(chunk);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while rating the openers", e);
+    } catch (ExecutionException e) {
+      // rating only computes, so any failure is a bug in the implementation
+      throw new AssertionError(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    return entries;
+  }
+
+  /**
+   * Read the ratings of an earlier run, drop a row that was cut off at the end of the file and
+   * write the header to a new file.
+   */
+  private static List<Entry> resume(Path csv) throws IOException {
+    List<Entry> entries = new ArrayList<>();
+    if (!Files.exists(csv) || Files.size(csv) == 0) {
+      Files.write(csv, (CSV_HEADER + '\n').getBytes(StandardCharsets.UTF_8));
+      return entries;
+    }
+
+    String content = Files.readString(csv, StandardCharsets.UTF_8);
+    if (!content.startsWith(CSV_HEADER + '\n')) {
+      throw new IllegalArgumentException("The file is no leaderboard");
+    }
+    int start = CSV_HEADER.length() + 1;
+    int end = content.indexOf('\n', start);
+    while (end >= 0) {
+      Entry entry = Entry.parse(content.substring(start, end));
+      if (entry == null) {
+        break;
+      }
+      entries.add(entry);
+      start = end + 1;
+      end = content.indexOf('\n', start);
+    }
+    if (start < content.length()) {
+      //everything from the first incomplete row on is rated again
+      try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.WRITE)) {
+        channel.truncate(content.substring(0, start).getBytes(StandardCharsets.UTF_8).length);
+      }
+    }
+    return entries;
+  }
+
+  private static List<Entry> rateAll(List<String> openers, BulkScorer scorer) {
+    List<Entry> entries = new ArrayList<>(openers.size());
+    byte[] patterns = new byte[scorer.size()];
+    int[] buckets = new int[FeedbackMatrix.PATTERN_COUNT];
+    for (String opener : openers) {
+      entries.add(rate(opener, scorer, patterns, buckets));
+    }
+    return entries;
+  }
+
+  /**
+   * Rate a single opener against all solution words.
+   *
+   * @param opener   the opener in lower case
+   * @param scorer   the scorer for all solution words
+   * @param patterns a reused array for the pattern against each solution word
+   * @param buckets  a reused array of {@link FeedbackMatrix#PATTERN_COUNT} counters
+   * @return the rating of the opener
+   */
+  static Entry rate(String opener, BulkScorer scorer, byte[] patterns, int[] buckets) {
+    scorer.score(opener.toCharArray(), patterns, 0);
+    Arrays.fill(buckets, 0);
+    for (byte pattern : patterns) {
+      buckets[pattern & 0xFF]++;
+    }
+
+    long sumOfSquares = 0;
+    double sumOfLogs = 0;
+    int worstCase = 0;
+    int groups = 0;
+    for (int bucket : buckets) {
+      if (bucket > 0) {
+        sumOfSquares += (long) bucket * bucket;
+        sumOfLogs += bucket * Math.log(bucket);
+        worstCase = Math.max(worstCase, bucket);
+        groups++;
+      }
+    }
+    double total = patterns.length;
+    double entropy = (Math.log(total) - sumOfLogs / total) / LOG_2;
+    return new Entry(opener, sumOfSquares / total, entropy, worstCase, groups);
+  }
+
+  /**
+   * Sort ratings by entropy, the best opener first.
+   *
+   * @param entries the ratings to sort
+   * @return the sorted ratings
+   */
+  public static List<Entry> rank(List<Entry> entries) {
+    List<Entry> ranked = new ArrayList<>(entries);
+    ranked.sort((first, second) -> {
+      int byEntropy = Double.compare(second.entropy, first.entropy);
+      return byEntropy != 0 ? byEntropy : first.opener.compareTo(second.opener);
+    });
+    return Collections.unmodifiableList(ranked);
+  }
+
+  /**
+   * The rating of a single opener.
+   */
+  public static final class Entry {
+
+    private final String opener;
+    private final double expectedRemaining;
+    private final double entropy;
+    private final int worstCase;
+    private final int patterns;
+
+    Entry(String opener, double expectedRemaining, double entropy, int worstCase, int patterns) {
+      this.opener = opener;
+      this.expectedRemaining = expectedRemaining;
+      this.entropy = entropy;
+      this.worstCase = worstCase;
+      this.patterns = patterns;
+    }
+
+    /**
+     * Parse a row of the CSV file.
+     *
+     * @param row the row without the line separator
+     * @return the rating, or {@code null} if the row is malformed
+     */
+    static Entry parse(String row) {
+      String[] columns = row.split(",", -1);
+      if (columns.length != COLUMN_COUNT) {
+        return null;
+      }
+      try {
+        return new Entry(columns[0], Double.parseDouble(columns[1]),
+            Double.parseDouble(columns[2]), Integer.parseInt(columns[3]),
+            Integer.parseInt(columns[4]));
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+
+    String toCsv() {
+      return String.format(Locale.ROOT, "%s,%.4f,%.4f,%d,%d", opener, expectedRemaining, entropy,
+          worstCase, patterns);
+    }
+
+    /**
+     * Get the rated opener.
+     *
+     * @return the opener in lower case
+     */
+    public String getOpener() {
+      return opener;
+    }
+
+    /**
+     * Get the number of solution words that remain on average after the opener.
+     *
+     * @return the expected number of remaining candidates
+     */
+    public double getExpectedRemaining() {
+      return expectedRemaining;
+    }
+
+    /**
+     * Get the expected information gain of the opener.
+     *
+     * @return the entropy in bits
+     */
+    public double getEntropy() {
+      return entropy;
+    }
+
+    /**
+     * Get the number of solution words that remain after the opener in the worst case.
+     *
+     * @return the size of the largest group
+     */
+    public int getWorstCase() {
+      return worstCase;
+    }
+
+    /**
+     * Get the number of different evaluations the opener can get.
+     *
+     * @return the number of groups
+     */
+    public int getPatterns() {
+      return patterns;
+    }
+  }
+}
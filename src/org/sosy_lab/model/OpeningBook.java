@@ -0,0 +1,498 @@
+package org.sosylab.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A precomputed decision tree that tells the next guess for every sequence of feedback, starting
+ * with a fixed opener. Every path of the tree ends with the solution word being guessed.
+ *
+ * <p>The tree is built offline: below the opener, each node guesses what the {@link Solver}
+ * rates best for the candidates that are left. Within one tree the candidates of different nodes
+ * never overlap, but trees for different openers run into the same candidate sets again and
+ * again, so books built together solve every candidate set only once. The children of each node
+ * are built in parallel.
+ *
+ * <p>In the binary file, each node consists of the id of its guess among the allowed words in two
+ * bytes, the number of children in one byte and, for every child, the pattern that leads to it in
+ * one byte and its offset in the file in four bytes. Children are sorted by pattern. Nodes that
+ * are shared between several paths are stored once. A lookup follows one offset per guess that
+ * was made, directly in the loaded file.
+ */
+public final class OpeningBook {
+
+  /**
+   * Magic number "WBOK" that marks a file as an opening book.
+   */
+  private static final int MAGIC = 0x57424f4b;
+  private static final int FORMAT_VERSION = 1;
+  private static final int HEADER_SIZE = 2 * Integer.BYTES + Long.BYTES;
+  private static final int NODE_HEADER_SIZE = Short.BYTES + 1;
+  private static final int CHILD_SIZE = 1 + Integer.BYTES;
+  private static final String BOOK_FILE_PROPERTY = "wordle.book";
+
+  private final Dictionary guesses;
+  private final Dictionary solutions;
+  private final ByteBuffer tree;
+
+  private OpeningBook(Dictionary guesses, Dictionary solutions, ByteBuffer tree) {
+    this.guesses = guesses;
+    this.solutions = solutions;
+    this.tree = tree;
+  }
+
+  /**
+   * Build the books for several openers and the words of the {@link WordProvider}. All cores are
+   * used.
+   *
+   * @param openers   the first guesses
+   * @param objective the criterion all further guesses are chosen by
+   * @return the books in the order of the openers
+   * @throws IllegalArgumentException if an opener is not an allowed word
+   */
+  public static List<OpeningBook> build(List<String> openers, Solver.Objective objective) {
+    return build(FeedbackMatrix.getInstance(), openers, objective);
+  }
+
+  /**
+   * Build the books for several openers based on a given feedback matrix.
+   *
+   * @param matrix    the matrix used to evaluate guesses
+   * @param openers   the first guesses
+   * @param objective the criterion all further guesses are chosen by
+   * @return the books in the order of the openers
+   * @throws IllegalArgumentException if an opener is not an allowed word
+   */
+  static List<OpeningBook> build(FeedbackMatrix matrix, List<String> openers,
+      Solver.Objective objective) {
+    int[] openerIds = new int[openers.size()];
+    for (int i = 0; i < openerIds.length; i++) {
+      openerIds[i] = matrix.guessIndexOf(requireNonNull(openers.get(i)));
+      if (openerIds[i] == Dictionary.NOT_FOUND) {
+        throw new IllegalArgumentException("The opener is not an allowed word: " + openers.get(i));
+      }
+    }
+
+    int[] allSolutions = new int[matrix.getSolutions().size()];
+    Arrays.setAll(allSolutions, id -> id);
+    long fingerprint = FeedbackMatrix.fingerprint(matrix.getGuesses(), matrix.getSolutions());
+    Builder builder = new Builder(matrix, new Solver(matrix, objective));
+    List<OpeningBook> books = new ArrayList<>(openerIds.length);
+    for (int openerId : openerIds) {
+      Node root = ForkJoinPool.commonPool().invoke(builder.new NodeTask(allSolutions, openerId));
+      books.add(new OpeningBook(matrix.getGuesses(), matrix.getSolutions(),
+          serialize(root, fingerprint)));
+    }
+    return books;
+  }
+
+  /**
+   * Get the book configured with the system property {@value #BOOK_FILE_PROPERTY}. It is loaded
+   * on first use and shared by all games.
+   *
+   * @return the book, or an empty optional if none is configured or it cannot be loaded
+   */
+  public static Optional<OpeningBook> getConfigured() {
+    return Holder.INSTANCE;
+  }
+
+  /**
+   * Defers loading the configured book until it is actually needed.
+   */
+  private static final class Holder {
+    private static final Optional<OpeningBook> INSTANCE = loadConfigured();
+
+    private static Optional<OpeningBook> loadConfigured() {
+      String configured = System.getProperty(BOOK_FILE_PROPERTY);
+      if (configured == null) {
+        return Optional.empty();
+      }
+      try {
+        return Optional.of(load(Paths.get(configured)));
+      } catch (IOException | IllegalArgumentException e) {
+        // A broken book is not fatal, hints are computed by the solver instead
+        return Optional.empty();
+      }
+    }
+  }
+
+  /**
+   * Load a book from a file. The file is memory-mapped.
+   *
+   * @param file the file to load
+   * @return the book
+   * @throws IOException if the file cannot be read
+   * @throws IllegalArgumentException if the file is no book for the words of the
+   *     {@link WordProvider}
+   */
+  public static OpeningBook load(Path file) throws IOException {
+    Dictionary guesses = WordProvider.getAllowedWords();
+    Dictionary solutions = WordProvider.getSolutions();
+    ByteBuffer tree;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      tree = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+          .order(ByteOrder.BIG_ENDIAN);
+    }
+    if (tree.limit() < HEADER_SIZE + NODE_HEADER_SIZE
+        || tree.getInt(0) != MAGIC
+        || tree.getInt(Integer.BYTES) != FORMAT_VERSION
+        || tree.getLong(2 * Integer.BYTES) != FeedbackMatrix.fingerprint(guesses, solutions)) {
+      throw new IllegalArgumentException("The file is no opening book for these word lists");
+    }
+    validate(tree, guesses.size());
+    return new OpeningBook(guesses, solutions, tree);
+  }
+
+  /**
+   * Check the nodes of a loaded tree, so that lookups never leave the file: every node has to fit
+   * into the file and guess an allowed word, and every child has to be another node that does not
+   * lead back to its parent.
+   *
+   * @throws IllegalArgumentException if the tree is malformed
+   */
+  private static void validate(ByteBuffer tree, int guessCount) {
+    //the nodes are stored one after the other, so one pass finds where each of them starts
+    BitSet nodes = new BitSet(tree.limit());
+    int node = HEADER_SIZE;
+    while (node < tree.limit()) {
+      if (tree.limit() - node < NODE_HEADER_SIZE
+          || (tree.getShort(node) & 0xFFFF) >= guessCount) {
+        throw new IllegalArgumentException("Malformed opening book");
+      }
+      int children = tree.get(node + Short.BYTES) & 0xFF;
+      if (tree.limit() - node - NODE_HEADER_SIZE < children * CHILD_SIZE) {
+        throw new IllegalArgumentException("Malformed opening book");
+      }
+      nodes.set(node);
+      node += NODE_HEADER_SIZE + children * CHILD_SIZE;
+    }
+
+    //walk the tree depth first without recursion, shared nodes are only entered once
+    BitSet onPath = new BitSet(tree.limit());
+    BitSet finished = new BitSet(tree.limit());
+    int[] path = new int[nodes.cardinality()];
+    int[] nextChild = new int[path.length];
+    path[0] = HEADER_SIZE;
+    onPath.set(HEADER_SIZE);
+    int depth = 1;
+    while (depth > 0) {
+      int parent = path[depth - 1];
+      int index = nextChild[depth - 1]++;
+      if (index == (tree.get(parent + Short.BYTES) & 0xFF)) {
+        onPath.clear(parent);
+        finished.set(parent);
+        depth--;
+        continue;
+      }
+      int child = tree.getInt(parent + NODE_HEADER_SIZE + index * CHILD_SIZE + 1);
+      if (child < 0 || !nodes.get(child) || onPath.get(child)) {
+        throw new IllegalArgumentException("Malformed opening book");
+      }
+      if (!finished.get(child)) {
+        path[depth] = child;
+        nextChild[depth] = 0;
+        onPath.set(child);
+        depth++;
+      }
+    }
+  }
+
+  /**
+   * Save the book to a file. The file is written to a temporary location first and then moved,
+   * so that concurrent readers never see a partially written file.
+   *
+   * @param file the file to write
+   * @throws IOException if the file cannot be written
+   */
+  public void save(Path file) throws IOException {
+    Path directory = file.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    Path temp = Files.createTempFile(directory, "wordle-book", ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        ByteBuffer content = tree.duplicate();
+        content.clear();
+        while (content.hasRemaining()) {
+          channel.write(content);
+        }
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Look up the next guess for a game, following the guesses made so far.
+   *
+   * @param game the game
+   * @return the recommended guess, or an empty optional if the game left the book, that is it did
+   *     not start with the opener or did not follow a recommendation
+   */
+  public Optional<String> nextGuess(Game game) {
+    requireNonNull(game);
+    int node = HEADER_SIZE;
+    for (Guess guess : game.getUserGuesses()) {
+      if (guessIdAt(node) != guesses.indexOf(guess.getWord())) {
+        return Optional.empty();
+      }
+      node = childAt(node, guess.getPattern());
+      if (node < 0) {
+        return Optional.empty();
+      }
+    }
+    return Optional.of(guesses.getWord(guessIdAt(node)));
+  }
+
+  /**
+   * Get the first guess of the book.
+   *
+   * @return the opener
+   */
+  public String getOpener() {
+    return guesses.getWord(guessIdAt(HEADER_SIZE));
+  }
+
+  /**
+   * Get the number of guesses needed for every solution word when following the book.
+   *
+   * @return the number of guesses for each solution word, in alphabetical order of the words, or
+   *     0 for a word the book does not lead to
+   */
+  public int[] guessesPerSolution() {
+    int[] guessCounts = new int[solutions.size()];
+    char[] guess = new char[Game.NUMBER_OF_CHARS_IN_WORD];
+    char[] solution = new char[Game.NUMBER_OF_CHARS_IN_WORD];
+    for (int id = 0; id < guessCounts.length; id++) {
+      //follow the feedback of the solution, since a solution word may also be guessed on the
+      //paths of other solutions without being one of their candidates
+      solutions.getLetters(id, solution);
+      int node = HEADER_SIZE;
+      int depth = 1;
+      while (node >= 0 && guesses.getPacked(guessIdAt(node)) != solutions.getPacked(id)) {
+        guesses.getLetters(guessIdAt(node), guess);
+        node = childAt(node, SolutionWord.score(guess, solution));
+        depth++;
+      }
+      guessCounts[id] = node < 0 ? 0 : depth;
+    }
+    return guessCounts;
+  }
+
+  private int guessIdAt(int node) {
+    return tree.getShort(node) & 0xFFFF;
+  }
+
+  /**
+   * Find the child of a node that follows a pattern.
+   *
+   * @return the offset of the child, or -1 if the node has none for the pattern
+   */
+  private int childAt(int node, int pattern) {
+    int low = 0;
+    int high = (tree.get(node + Short.BYTES) & 0xFF) - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int child = node + NODE_HEADER_SIZE + middle * CHILD_SIZE;
+      int childPattern = tree.get(child) & 0xFF;
+      if (childPattern < pattern) {
+        low = middle + 1;
+      } else if (childPattern > pattern) {
+        high = middle - 1;
+      } else {
+        return tree.getInt(child + 1);
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Lay out the tree in preorder. Shared nodes are written only once.
+   */
+  private static ByteBuffer serialize(Node root, long fingerprint) {
+    Map<Node, Integer> offsets = new IdentityHashMap<>();
+    List<Node> order = new ArrayList<>();
+    int size = assignOffsets(root, HEADER_SIZE, offsets, order);
+
+    ByteBuffer tree = ByteBuffer.allocate(size).order(ByteOrder.BIG_ENDIAN);
+    tree.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(fingerprint);
+    for (Node node : order) {
+      tree.putShort((short) node.guessId);
+      tree.put((byte) node.patterns.length);
+      for (int i = 0; i < node.patterns.length; i++) {
+        tree.put((byte) node.patterns[i]);
+        tree.putInt(offsets.get(node.children[i]));
+      }
+    }
+    return tree.flip();
+  }
+
+  private static int assignOffsets(Node node, int offset, Map<Node, Integer> offsets,
+      List<Node> order) {
+    if (offsets.containsKey(node)) {
+      return offset;
+    }
+    offsets.put(node, offset);
+    order.add(node);
+    int next = offset + NODE_HEADER_SIZE + node.patterns.length * CHILD_SIZE;
+    for (Node child : node.children) {
+      next = assignOffsets(child, next, offsets, order);
+    }
+    return next;
+  }
+
+  /**
+   * A node of the tree while it is built: the guess and the subtrees for each pattern it can
+   * produce, except for the pattern that solves the game.
+   */
+  private static final class Node {
+    private final int guessId;
+    private final int[] patterns;
+    private final Node[] children;
+
+    Node(int guessId, int[] patterns, Node[] children) {
+      this.guessId = guessId;
+      this.patterns = patterns;
+      this.children = children;
+    }
+  }
+
+  /**
+   * A set of candidates as the key of the memoized subtrees.
+   */
+  private static final class CandidateKey {
+    private final int[] candidates;
+    private final int hash;
+
+    CandidateKey(int[] candidates) {
+      this.candidates = candidates;
+      this.hash = Arrays.hashCode(candidates);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof CandidateKey
+          && Arrays.equals(candidates, ((CandidateKey) other).candidates);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /**
+   * Builds the nodes of one tree and remembers the subtree of every candidate set.
+   */
+  private static final class Builder {
+
+    private final FeedbackMatrix matrix;
+    private final Solver solver;
+    private final Map<CandidateKey, Node> solved = new ConcurrentHashMap<>();
+
+    Builder(FeedbackMatrix matrix, Solver solver) {
+      this.matrix = matrix;
+      this.solver = solver;
+    }
+
+    /**
+     * Builds the subtree for a set of candidates. The subtrees of all patterns are built in
+     * parallel.
+     */
+    private final class NodeTask extends RecursiveTask<Node> {
+
+      private static final long serialVersionUID = 1L;
+
+      private final int[] candidates;
+      private final int guessId;
+
+      /**
+       * Create a task for a node with a given guess, or with the best guess if it is
+       * {@link Dictionary#NOT_FOUND}.
+       */
+      NodeTask(int[] candidates, int guessId) {
+        this.candidates = candidates;
+        this.guessId = guessId;
+      }
+
+      @Override
+      protected Node compute() {
+        if (guessId != Dictionary.NOT_FOUND) {
+          return buildNode(guessId);
+        }
+        CandidateKey key = new CandidateKey(candidates);
+        Node node = solved.get(key);
+        if (node == null) {
+          node = buildNode(solver.bestGuess(candidates, candidates.length));
+          solved.putIfAbsent(key, node);
+        }
+        return node;
+      }
+
+      private Node buildNode(int guess) {
+        //sort the candidates into buckets by the pattern they produce
+        int[] bucketSizes = new int[FeedbackMatrix.PATTERN_COUNT];
+        for (int candidate : candidates) {
+          bucketSizes[matrix.pattern(guess, candidate)]++;
+        }
+        if (bucketSizes[FeedbackMatrix.ALL_CORRECT] == 0
+            && Arrays.stream(bucketSizes).anyMatch(size -> size == candidates.length)) {
+          //the guess does not tell the candidates apart, so guess one of them instead
+          return buildNode(matrix.guessIdOfSolution(candidates[0]));
+        }
+
+        int[][] buckets = new int[FeedbackMatrix.PATTERN_COUNT][];
+        int childCount = 0;
+        for (int pattern = 0; pattern < FeedbackMatrix.ALL_CORRECT; pattern++) {
+          if (bucketSizes[pattern] > 0) {
+            buckets[pattern] = new int[bucketSizes[pattern]];
+            bucketSizes[pattern] = 0;
+            childCount++;
+          }
+        }
+        for (int candidate : candidates) {
+          int pattern = matrix.pattern(guess, candidate);
+          if (pattern != FeedbackMatrix.ALL_CORRECT) {
+            buckets[pattern][bucketSizes[pattern]++] = candidate;
+          }
+        }
+
+        int[] patterns = new int[childCount];
+        List<NodeTask> tasks = new ArrayList<>(childCount);
+        for (int pattern = 0, child = 0; pattern < FeedbackMatrix.ALL_CORRECT; pattern++) {
+          if (buckets[pattern] != null) {
+            patterns[child++] = pattern;
+            tasks.add(new NodeTask(buckets[pattern], Dictionary.NOT_FOUND));
+          }
+        }
+        invokeAll(tasks);
+
+        Node[] children = new Node[childCount];
+        for (int i = 0; i < childCount; i++) {
+          children[i] = tasks.get(i).join();
+        }
+        return new Node(guess, patterns, children);
+      }
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package org.sosylab.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.PrintStream;
+
+/**
+ * Receives the rendered output of a game, one complete frame at a time.
+ */
+public interface OutputSink {
+
+  /**
+   * A sink that drops all output, for games that nobody watches.
+   */
+  OutputSink DISCARD = text -> { };
+
+  /**
+   * Write a frame.
+   *
+   * @param text the rendered frame. It is only valid during the call, since the buffer is reused.
+   */
+  void write(CharSequence text);
+
+  /**
+   * Create a sink that writes to a stream.
+   *
+   * @param stream the stream to write to
+   * @return the sink
+   */
+  static OutputSink of(PrintStream stream) {
+    requireNonNull(stream);
+    return stream::append;
+  }
+}
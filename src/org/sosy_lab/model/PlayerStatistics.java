@@ -0,0 +1,128 @@
+package org.sosylab.model;
+
+/**
+ * The statistics of a player: how many games were played and won, the streaks of won games and
+ * how many guesses the won games took. Statistics are immutable, every finished game creates new
+ * ones, so they can be read at any time without seeing a game only half counted.
+ */
+public final class PlayerStatistics {
+
+  /**
+   * The statistics of a player who has not finished a game yet.
+   */
+  public static final PlayerStatistics EMPTY =
+      new PlayerStatistics(0, 0, 0, 0, new int[Game.NUMBER_OF_GUESSES]);
+
+  private final int gamesPlayed;
+  private final int gamesWon;
+  private final int currentStreak;
+  private final int maxStreak;
+  private final int[] guessDistribution;
+
+  PlayerStatistics(int gamesPlayed, int gamesWon, int currentStreak, int maxStreak,
+      int[] guessDistribution) {
+    if (guessDistribution.length != Game.NUMBER_OF_GUESSES) {
+      throw new IllegalArgumentException("One count per number of guesses is required");
+    }
+    this.gamesPlayed = gamesPlayed;
+    this.gamesWon = gamesWon;
+    this.currentStreak = currentStreak;
+    this.maxStreak = maxStreak;
+    this.guessDistribution = guessDistribution;
+  }
+
+  /**
+   * Count a finished game.
+   *
+   * @param won     whether the game was won
+   * @param guesses the number of guesses of a won game between 1 and
+   *                {@link Game#NUMBER_OF_GUESSES}, ignored for a lost game
+   * @return the statistics including the game
+   * @throws IllegalArgumentException if a won game has an impossible number of guesses
+   */
+  PlayerStatistics withGame(boolean won, int guesses) {
+    if (!won) {
+      return new PlayerStatistics(gamesPlayed + 1, gamesWon, 0, maxStreak, guessDistribution);
+    }
+    if (guesses < 1 || guesses > Game.NUMBER_OF_GUESSES) {
+      throw new IllegalArgumentException("A won game takes 1 to " + Game.NUMBER_OF_GUESSES
+          + " guesses");
+    }
+    int[] distribution = guessDistribution.clone();
+    distribution[guesses - 1]++;
+    int streak = currentStreak + 1;
+    return new PlayerStatistics(gamesPlayed + 1, gamesWon + 1, streak,
+        Math.max(maxStreak, streak), distribution);
+  }
+
+  /**
+   * Add up the games of two sets of statistics, for example of all players. Streaks only make
+   * sense for a single player, so only the longest one is kept.
+   *
+   * @param other the statistics to add
+   * @return the combined statistics
+   */
+  PlayerStatistics plus(PlayerStatistics other) {
+    int[] distribution = guessDistribution.clone();
+    for (int i = 0; i < distribution.length; i++) {
+      distribution[i] += other.guessDistribution[i];
+    }
+    return new PlayerStatistics(gamesPlayed + other.gamesPlayed, gamesWon + other.gamesWon, 0,
+        Math.max(maxStreak, other.maxStreak), distribution);
+  }
+
+  /**
+   * Get the number of finished games.
+   *
+   * @return the number of games played
+   */
+  public int getGamesPlayed() {
+    return gamesPlayed;
+  }
+
+  /**
+   * Get the number of won games.
+   *
+   * @return the number of games won
+   */
+  public int getGamesWon() {
+    return gamesWon;
+  }
+
+  /**
+   * Get the share of won games.
+   *
+   * @return the percentage of won games, or 0 if no game was played
+   */
+  public double getWinPercentage() {
+    return gamesPlayed == 0 ? 0 : 100.0 * gamesWon / gamesPlayed;
+  }
+
+  /**
+   * Get the number of games won since the last lost game.
+   *
+   * @return the current streak
+   */
+  public int getCurrentStreak() {
+    return currentStreak;
+  }
+
+  /**
+   * Get the most games won in a row.
+   *
+   * @return the longest streak
+   */
+  public int getMaxStreak() {
+    return maxStreak;
+  }
+
+  /**
+   * Get how many games were won with each number of guesses.
+   *
+   * @param guesses the number of guesses between 1 and {@link Game#NUMBER_OF_GUESSES}
+   * @return the number of games won with that many guesses
+   */
+  public int getGamesWonWith(int guesses) {
+    return guessDistribution[guesses - 1];
+  }
+}
@@ -0,0 +1,122 @@
+package org.sosylab.model;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The aggregated results of a simulation.
+ */
+public class SimulationReport {
+
+  private final String strategy;
+  private final long[] guessDistribution;
+  private final long lost;
+  private final long elapsedNanos;
+
+  /**
+   * Create a report.
+   *
+   * @param strategy          the name of the strategy that was played
+   * @param guessDistribution the number of games won with {@code i + 1} guesses at index {@code i}
+   * @param lost              the number of games that were lost
+   * @param elapsedNanos      the time the simulation took
+   */
+  SimulationReport(String strategy, long[] guessDistribution, long lost, long elapsedNanos) {
+    this.strategy = strategy;
+    this.guessDistribution = Arrays.copyOf(guessDistribution, guessDistribution.length);
+    this.lost = lost;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * Get the number of games played.
+   *
+   * @return the number of games
+   */
+  public long getGames() {
+    return getWins() + lost;
+  }
+
+  /**
+   * Get the number of games won.
+   *
+   * @return the number of wins
+   */
+  public long getWins() {
+    return Arrays.stream(guessDistribution).sum();
+  }
+
+  /**
+   * Get the share of games won.
+   *
+   * @return the win rate between 0 and 1
+   */
+  public double getWinRate() {
+    long games = getGames();
+    return games == 0 ? 0 : (double) getWins() / games;
+  }
+
+  /**
+   * Get the average number of guesses of the games that were won.
+   *
+   * @return the average number of guesses
+   */
+  public double getAverageGuesses() {
+    long wins = getWins();
+    long guesses = 0;
+    for (int i = 0; i < guessDistribution.length; i++) {
+      guesses += (i + 1) * guessDistribution[i];
+    }
+    return wins == 0 ? 0 : (double) guesses / wins;
+  }
+
+  /**
+   * Get how many games were won with each number of guesses.
+   *
+   * @return the number of games won with {@code i + 1} guesses at index {@code i}
+   */
+  public long[] getGuessDistribution() {
+    return Arrays.copyOf(guessDistribution, guessDistribution.length);
+  }
+
+  /**
+   * Get the number of games played per second.
+   *
+   * @return the throughput of the simulation
+   */
+  public double getGamesPerSecond() {
+    return elapsedNanos == 0 ? 0 : getGames() * 1e9 / elapsedNanos;
+  }
+
+  /**
+   * Format the report as JSON.
+   *
+   * @return the report in JSON
+   */
+  public String toJson() {
+    StringBuilder json = new StringBuilder(256);
+    json.append("{\"strategy\":\"").append(strategy).append('"')
+        .append(",\"games\":").append(getGames())
+        .append(",\"wins\":").append(getWins())
+        .append(",\"winRate\":").append(format(getWinRate()))
+        .append(",\"averageGuesses\":").append(format(getAverageGuesses()))
+        .append(",\"distribution\":{");
+    for (int i = 0; i < guessDistribution.length; i++) {
+      json.append('"').append(i + 1).append("\":").append(guessDistribution[i]).append(',');
+    }
+    json.append("\"lost\":").append(lost).append('}')
+        .append(",\"elapsedSeconds\":").append(format(elapsedNanos / 1e9))
+        .append(",\"gamesPerSecond\":").append(format(getGamesPerSecond()))
+        .append('}');
+    return json.toString();
+  }
+
+  private static String format(double value) {
+    return String.format(Locale.ROOT, "%.4f", value);
+  }
+
+  @Override
+  public String toString() {
+    return toJson();
+  }
+}
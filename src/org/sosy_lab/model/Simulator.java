@@ -0,0 +1,118 @@
+package org.sosylab.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Plays many games with a {@link GuessStrategy} without any output. The games are evaluated with
+ * the {@link FeedbackMatrix} and spread over all cores.
+ */
+public class Simulator {
+
+  private final FeedbackMatrix matrix;
+  private final GuessStrategy strategy;
+  private final int maxGuesses;
+
+  /**
+   * Create a simulator for the words of the {@link WordProvider}.
+   *
+   * @param strategy the strategy that makes the guesses
+   */
+  public Simulator(GuessStrategy strategy) {
+    this(FeedbackMatrix.getInstance(), strategy, Game.NUMBER_OF_GUESSES);
+  }
+
+  /**
+   * Create a simulator.
+   *
+   * @param matrix     the matrix used to evaluate guesses
+   * @param strategy   the strategy that makes the guesses
+   * @param maxGuesses the number of guesses after which a game is lost
+   */
+  Simulator(FeedbackMatrix matrix, GuessStrategy strategy, int maxGuesses) {
+    this.matrix = requireNonNull(matrix);
+    this.strategy = requireNonNull(strategy);
+    this.maxGuesses = maxGuesses;
+  }
+
+  /**
+   * Play one game against every solution word.
+   *
+   * @return the aggregated results
+   */
+  public SimulationReport playAll() {
+    return play(IntStream.range(0, matrix.getSolutions().size()).toArray());
+  }
+
+  /**
+   * Play games against randomly drawn solution words. The same seed always plays the same words.
+   *
+   * @param games the number of games to play
+   * @param seed  the seed for drawing the solution words
+   * @return the aggregated results
+   */
+  public SimulationReport playSample(int games, long seed) {
+    Random random = new Random(seed);
+    return play(random.ints(games, 0, matrix.getSolutions().size()).toArray());
+  }
+
+  private SimulationReport play(int[] solutions) {
+    long start = System.nanoTime();
+    Results results = IntStream.of(solutions).parallel()
+        .collect(Results::new, Results::play, Results::combine);
+    return new SimulationReport(
+        strategy.getName(), results.wonAfter, results.lost, System.nanoTime() - start);
+  }
+
+  /**
+   * The results of the games played by one thread, together with the buffers it reuses for
+   * every game.
+   */
+  private final class Results {
+
+    private final long[] wonAfter = new long[maxGuesses];
+    private long lost;
+    private final int[] allCandidates;
+    private final int[] candidates;
+
+    Results() {
+      allCandidates = IntStream.range(0, matrix.getSolutions().size()).toArray();
+      candidates = new int[allCandidates.length];
+    }
+
+    /**
+     * Play a single game.
+     */
+    void play(int solution) {
+      System.arraycopy(allCandidates, 0, candidates, 0, allCandidates.length);
+      int candidateCount = candidates.length;
+
+      for (int turn = 0; turn < maxGuesses; turn++) {
+        int guess = strategy.nextGuess(candidates, candidateCount, turn);
+        int pattern = matrix.pattern(guess, solution);
+        if (pattern == FeedbackMatrix.ALL_CORRECT) {
+          wonAfter[turn]++;
+          return;
+        }
+
+        int kept = 0;
+        for (int i = 0; i < candidateCount; i++) {
+          if (matrix.pattern(guess, candidates[i]) == pattern) {
+            candidates[kept++] = candidates[i];
+          }
+        }
+        candidateCount = kept;
+      }
+      lost++;
+    }
+
+    void combine(Results other) {
+      for (int i = 0; i < wonAfter.length; i++) {
+        wonAfter[i] += other.wonAfter[i];
+      }
+      lost += other.lost;
+    }
+  }
+}
@@ -2,17 +2,19 @@ package org.sosylab.model;
 
 import static java.util.Objects.requireNonNull;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-
 /**
  * The solution word contains all information how an arbitrary guess relates to the solution word.
  */
 class SolutionWord {
 
+  /**
+   * The weight of the result of each letter in a packed pattern.
+   */
+  static final int[] PATTERN_WEIGHTS = {1, 3, 9, 27, 81};
+
   private final String completeWord;
-  private final List<Character> slots;
+  private final char[] letters;
+  private final Guess revealed;
 
   /**
    * Create a new word to guess.
@@ -22,12 +24,8 @@ class SolutionWord {
   SolutionWord(String solutionWord) {
     requireNonNull(solutionWord);
     completeWord = solutionWord.toLowerCase();
-
-    char[] chars = completeWord.toCharArray();
-    slots = new ArrayList<>(Game.NUMBER_OF_CHARS_IN_WORD);
-    for (char c : chars) {
-      slots.add(c);
-    }
+    letters = completeWord.toCharArray();
+    revealed = new Guess(completeWord, FeedbackPattern.of(FeedbackMatrix.ALL_CORRECT));
   }
 
   /**
@@ -39,40 +37,71 @@ class SolutionWord {
   Guess guessWord(String word) {
     requireNonNull(word);
 
-    char[] guess = word.toLowerCase().toCharArray();
-    Bag<Character> unusedLetters = new Bag<>(slots);
-    GuessResult[] result = new GuessResult[Game.NUMBER_OF_CHARS_IN_WORD];
+    long start = Metric.start();
+    String lowerCase = word.toLowerCase();
+    Guess result = new Guess(lowerCase, FeedbackPattern.of(score(lowerCase.toCharArray())));
+    Metric.SCORE_GUESS.record(start);
+    return result;
+  }
 
+  /**
+   * Compare a guessed word against this word without creating any objects.
+   *
+   * @param guess the letters of the guess in lower case
+   * @return the evaluation of the guess packed as a pattern, see {@link FeedbackMatrix}
+   */
+  int score(char[] guess) {
+    return score(guess, letters);
+  }
+
+  /**
+   * Compare a guessed word against a solution word without creating any objects.
+   *
+   * <p>Letters of the solution that are not hit by a correct letter are tracked in a bit mask. Each
+   * remaining letter of the guess consumes the first unused occurrence in the solution, so a letter
+   * is only marked as contained as often as it occurs in the solution.
+   *
+   * @param guess    the letters of the guess in lower case
+   * @param solution the letters of the solution in lower case
+   * @return the evaluation of the guess packed as a pattern, see {@link FeedbackMatrix}
+   */
+  static int score(char[] guess, char[] solution) {
+    Game.throwErrorIfInvalidWordSize(guess.length);
+
+    int pattern = 0;
+    int unusedLetters = 0;
     for (int i = 0; i < Game.NUMBER_OF_CHARS_IN_WORD; i++) {
-      if (slots.get(i) == guess[i]) {
-        result[i] = GuessResult.CORRECT;
-        unusedLetters.removeElementIfPresent(slots.get(i));
+      if (guess[i] == solution[i]) {
+        pattern += GuessResult.CORRECT.ordinal() * PATTERN_WEIGHTS[i];
+      } else {
+        unusedLetters |= 1 << i;
       }
     }
 
+    int openPositions = unusedLetters;
     for (int i = 0; i < Game.NUMBER_OF_CHARS_IN_WORD; i++) {
-      if (result[i] != null) {
+      if ((openPositions & (1 << i)) == 0) {
         continue;
       }
 
-      if (unusedLetters.removeElementIfPresent(guess[i])) {
-        result[i] = GuessResult.CONTAINED;
-      } else {
-        result[i] = GuessResult.WRONG;
+      for (int j = 0; j < Game.NUMBER_OF_CHARS_IN_WORD; j++) {
+        if ((unusedLetters & (1 << j)) != 0 && solution[j] == guess[i]) {
+          pattern += GuessResult.CONTAINED.ordinal() * PATTERN_WEIGHTS[i];
+          unusedLetters &= ~(1 << j);
+          break;
+        }
       }
     }
 
-    return new Guess(guess, result);
+    return pattern;
   }
 
   /**
    * Reveal the solution word that is to be guessed.
    *
-   * @return a guess of the word itself
+   * @return a guess of the word itself, the same instance on every call
    */
   Guess reveal() {
-    GuessResult[] result = new GuessResult[Game.NUMBER_OF_CHARS_IN_WORD];
-    Arrays.fill(result, GuessResult.CORRECT);
-    return new Guess(completeWord.toCharArray(), result);
+    return revealed;
   }
 }
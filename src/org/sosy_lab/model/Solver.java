@@ -0,0 +1,269 @@
+package org.sosylab.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The solver rates all allowed guesses by how well they narrow down the solution words that are
+ * still consistent with the guesses of a game. The guesses are rated in parallel on the common
+ * fork-join pool, using the precomputed {@link FeedbackMatrix}.
+ */
+public class Solver {
+
+  /**
+   * The criteria a guess can be rated by.
+   */
+  public enum Objective {
+    /**
+     * Maximize the expected information gain of the feedback.
+     */
+    ENTROPY,
+    /**
+     * Minimize the number of candidates that remain in the worst case.
+     */
+    WORST_CASE
+  }
+
+  /**
+   * The number of guesses rated by a single task without splitting it further.
+   */
+  private static final int GUESSES_PER_TASK = 256;
+
+  private final FeedbackMatrix matrix;
+  private final Objective objective;
+
+  /**
+   * Create a solver for the words of the {@link WordProvider}.
+   *
+   * @param objective the criterion guesses are rated by
+   */
+  public Solver(Objective objective) {
+    this(FeedbackMatrix.getInstance(), objective);
+  }
+
+  /**
+   * Create a solver based on a given feedback matrix.
+   *
+   * @param matrix    the matrix used to evaluate guesses
+   * @param objective the criterion guesses are rated by
+   */
+  Solver(FeedbackMatrix matrix, Objective objective) {
+    this.matrix = requireNonNull(matrix);
+    this.objective = requireNonNull(objective);
+  }
+
+  /**
+   * Suggest the best next guesses for a game, based on its remaining candidates. In hard mode,
+   * only guesses that use the hints revealed so far are suggested.
+   *
+   * @param game  the game to find a guess for
+   * @param count the maximum number of suggestions
+   * @return the best guesses, the best one first. The list is empty if no solution word matches
+   *     the guesses made so far.
+   */
+  public List<Hint> suggestGuesses(Game game, int count) {
+    requireNonNull(game);
+    return rank(game.candidateIds(), count, game.isHardMode() ? legalGuesses(game) : null);
+  }
+
+  /**
+   * Rate all allowed guesses against a set of candidates and return the best ones. Among guesses
+   * with the same score, those that are candidates themselves are preferred.
+   *
+   * @param candidates the ids of the remaining solution words
+   * @param count      the maximum number of guesses to return
+   * @return the best guesses, the best one first
+   */
+  List<Hint> rank(int[] candidates, int count) {
+    return rank(candidates, count, null);
+  }
+
+  /**
+   * Rate all allowed guesses against a set of candidates and return the best legal ones.
+   *
+   * @param candidates the ids of the remaining solution words
+   * @param count      the maximum number of guesses to return
+   * @param legal      which guesses may be made, or null if all may be made
+   * @return the best guesses, the best one first
+   */
+  private List<Hint> rank(int[] candidates, int count, boolean[] legal) {
+    if (candidates.length == 0 || count <= 0) {
+      return List.of();
+    }
+
+    double[] scores = rate(candidates, candidates.length);
+    boolean[] isCandidate = markCandidates(candidates, candidates.length);
+    int[] best = selectBest(scores, isCandidate, legal, count);
+
+    List<Hint> hints = new ArrayList<>(best.length);
+    for (int guessId : best) {
+      double score = objective == Objective.ENTROPY ? scores[guessId] : -scores[guessId];
+      hints.add(new Hint(matrix.getGuesses().getWord(guessId), score, isCandidate[guessId]));
+    }
+    return hints;
+  }
+
+  /**
+   * Find the best guess for a set of candidates. If at most two candidates remain, guessing one
+   * of them is always best.
+   *
+   * @param candidates     the ids of the remaining solution words
+   * @param candidateCount the number of valid entries in {@code candidates}
+   * @return the id of the best guess among the allowed words
+   */
+  int bestGuess(int[] candidates, int candidateCount) {
+    if (candidateCount <= 0) {
+      throw new IllegalArgumentException("There has to be at least one candidate");
+    }
+    if (candidateCount <= 2) {
+      return matrix.guessIdOfSolution(candidates[0]);
+    }
+    double[] scores = rate(candidates, candidateCount);
+    return selectBest(scores, markCandidates(candidates, candidateCount), null, 1)[0];
+  }
+
+  /**
+   * Rate every allowed guess against the candidates in parallel.
+   */
+  private double[] rate(int[] candidates, int candidateCount) {
+    double[] scores = new double[matrix.getGuesses().size()];
+    ForkJoinPool.commonPool().invoke(new RatingTask(
+        candidates, candidateCount, scores, sumTable(candidateCount), 0, scores.length));
+    return scores;
+  }
+
+  /**
+   * Mark the allowed guesses that are candidates themselves.
+   */
+  private boolean[] markCandidates(int[] candidates, int candidateCount) {
+    boolean[] isCandidate = new boolean[matrix.getGuesses().size()];
+    for (int i = 0; i < candidateCount; i++) {
+      isCandidate[matrix.guessIdOfSolution(candidates[i])] = true;
+    }
+    return isCandidate;
+  }
+
+  /**
+   * Mark the allowed guesses that use all hints revealed in a game in hard mode.
+   */
+  private boolean[] legalGuesses(Game game) {
+    Dictionary guesses = matrix.getGuesses();
+    boolean[] legal = new boolean[guesses.size()];
+    for (int guessId = 0; guessId < legal.length; guessId++) {
+      legal[guessId] = game.usesRevealedHints(guesses.getWord(guessId));
+    }
+    return legal;
+  }
+
+  /**
+   * Select the legal guesses with the highest scores. The best guesses are kept in a small sorted
+   * array and ids are visited in ascending order, so ties are resolved alphabetically.
+   */
+  private static int[] selectBest(double[] scores, boolean[] isCandidate, boolean[] legal,
+      int count) {
+    int limit = Math.min(count, scores.length);
+    int[] best = new int[limit];
+    int found = 0;
+    for (int guessId = 0; guessId < scores.length; guessId++) {
+      if (legal != null && !legal[guessId]) {
+        continue;
+      }
+      if (found == limit && !isBetter(guessId, best[limit - 1], scores, isCandidate)) {
+        continue;
+      }
+      int position = Math.min(found, limit - 1);
+      while (position > 0 && isBetter(guessId, best[position - 1], scores, isCandidate)) {
+        best[position] = best[position - 1];
+        position--;
+      }
+      best[position] = guessId;
+      found = Math.min(found + 1, limit);
+    }
+    return Arrays.copyOf(best, found);
+  }
+
+  private static boolean isBetter(int first, int second, double[] scores, boolean[] isCandidate) {
+    if (scores[first] != scores[second]) {
+      return scores[first] > scores[second];
+    }
+    return isCandidate[first] && !isCandidate[second];
+  }
+
+  /**
+   * Precompute {@code n * log2(n)} for all bucket sizes, which is needed for the entropy.
+   */
+  private double[] sumTable(int candidateCount) {
+    if (objective != Objective.ENTROPY) {
+      return null;
+    }
+    double[] table = new double[candidateCount + 1];
+    for (int n = 2; n <= candidateCount; n++) {
+      table[n] = n * (Math.log(n) / Math.log(2));
+    }
+    return table;
+  }
+
+  /**
+   * Rates a range of guesses. Larger ranges are split in halves that are rated in parallel. For
+   * both objectives a higher score is better, the worst case is therefore stored negated.
+   */
+  private final class RatingTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int[] candidates;
+    private final int candidateCount;
+    private final double[] scores;
+    private final double[] sumTable;
+    private final int from;
+    private final int to;
+
+    RatingTask(int[] candidates, int candidateCount, double[] scores, double[] sumTable, int from,
+        int to) {
+      this.candidates = candidates;
+      this.candidateCount = candidateCount;
+      this.scores = scores;
+      this.sumTable = sumTable;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > GUESSES_PER_TASK) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new RatingTask(candidates, candidateCount, scores, sumTable, from, middle),
+            new RatingTask(candidates, candidateCount, scores, sumTable, middle, to));
+        return;
+      }
+
+      int[] buckets = new int[FeedbackMatrix.PATTERN_COUNT];
+      double total = candidateCount;
+      for (int guessId = from; guessId < to; guessId++) {
+        Arrays.fill(buckets, 0);
+        for (int i = 0; i < candidateCount; i++) {
+          buckets[matrix.pattern(guessId, candidates[i])]++;
+        }
+
+        if (objective == Objective.ENTROPY) {
+          double sum = 0;
+          for (int bucket : buckets) {
+            sum += sumTable[bucket];
+          }
+          scores[guessId] = sumTable[candidateCount] / total - sum / total;
+        } else {
+          int worst = 0;
+          for (int bucket : buckets) {
+            worst = Math.max(worst, bucket);
+          }
+          scores[guessId] = -worst;
+        }
+      }
+    }
+  }
+}
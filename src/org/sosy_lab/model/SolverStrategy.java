@@ -0,0 +1,47 @@
+package org.sosylab.model;
+
+import java.util.Locale;
+
+/**
+ * Plays the guesses suggested by the {@link Solver}. The first guess does not depend on the
+ * solution word, so it is computed only once.
+ */
+class SolverStrategy implements GuessStrategy {
+
+  private final FeedbackMatrix matrix;
+  private final Solver solver;
+  private final String name;
+  private volatile int opener = Dictionary.NOT_FOUND;
+
+  /**
+   * Create a strategy based on a solver.
+   *
+   * @param matrix    the matrix used to evaluate guesses
+   * @param objective the criterion guesses are rated by
+   */
+  SolverStrategy(FeedbackMatrix matrix, Solver.Objective objective) {
+    this.matrix = matrix;
+    this.solver = new Solver(matrix, objective);
+    this.name = objective.name().toLowerCase(Locale.ROOT).replace('_', '-');
+  }
+
+  @Override
+  public int nextGuess(int[] candidates, int candidateCount, int turn) {
+    if (candidateCount < matrix.getSolutions().size()) {
+      return solver.bestGuess(candidates, candidateCount);
+    }
+
+    // racing threads compute the same opener, so no further synchronization is needed
+    int guess = opener;
+    if (guess == Dictionary.NOT_FOUND) {
+      guess = solver.bestGuess(candidates, candidateCount);
+      opener = guess;
+    }
+    return guess;
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+}
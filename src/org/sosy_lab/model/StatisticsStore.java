@@ -0,0 +1,373 @@
+package org.sosylab.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps the {@link PlayerStatistics} of all players and shares them between all sessions.
+ *
+ * <p>Every player has a cell with immutable statistics, which a finished game replaces with a
+ * compare-and-set. Sessions of different players therefore never wait for each other, and readers
+ * never block a writer. The statistics of all players are added up when they are read, so there
+ * is no global counter that every game has to update.
+ *
+ * <p>A store can be backed by a file. The statistics are not written when a game ends: a
+ * background thread periodically appends the current statistics of every player who finished a
+ * game since then, so many games of a player are compacted into a single record. The last record
+ * of a player wins when the file is read. Once the file holds many outdated records, it is
+ * rewritten with one record per player.
+ */
+public final class StatisticsStore implements Closeable {
+
+  private static final String STATS_FILE_PROPERTY = "wordle.stats.file";
+  private static final int MAGIC = 0x57535453;
+  private static final int FORMAT_VERSION = 1;
+  private static final long FLUSH_INTERVAL_SECONDS = 5;
+
+  /**
+   * The number of outdated records the file may hold beyond one per player before it is
+   * rewritten.
+   */
+  private static final int MAX_OUTDATED_RECORDS = 1024;
+
+  private final ConcurrentHashMap<String, AtomicReference<PlayerStatistics>> players =
+      new ConcurrentHashMap<>();
+
+  /**
+   * The players whose statistics changed since they were last written.
+   */
+  private final Set<String> changed = ConcurrentHashMap.newKeySet();
+
+  private final Path file;
+  private final ScheduledExecutorService flusher;
+
+  /**
+   * The stream that appends to the file. It is only used by the flusher thread, or by the thread
+   * that closes the store once the flusher has stopped.
+   */
+  private DataOutputStream appender;
+  private int recordsInFile;
+  private boolean rewriteRequired;
+
+  private StatisticsStore(Path file) {
+    this.file = file;
+    if (file == null) {
+      flusher = null;
+    } else {
+      flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "wordle-statistics-flusher");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  /**
+   * Create a store that only keeps the statistics in memory.
+   *
+   * @return the new store
+   */
+  public static StatisticsStore inMemory() {
+    return new StatisticsStore(null);
+  }
+
+  /**
+   * Open a store backed by a file. The statistics saved in the file are read, and a missing file
+   * is created. Changes are written to the file in the background until the store is closed.
+   *
+   * @param file the file that keeps the statistics
+   * @return the new store
+   * @throws IOException if the file cannot be read or written
+   * @throws IllegalArgumentException if the file contains no statistics
+   */
+  public static StatisticsStore open(Path file) throws IOException {
+    StatisticsStore store = new StatisticsStore(requireNonNull(file));
+    try {
+      store.read();
+      //start with a compact file that has a header even if the old one was cut off in a record
+      store.rewrite();
+    } catch (IOException | RuntimeException e) {
+      store.flusher.shutdown();
+      throw e;
+    }
+    store.flusher.scheduleWithFixedDelay(store::flushQuietly, FLUSH_INTERVAL_SECONDS,
+        FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    return store;
+  }
+
+  /**
+   * Get the store shared by all sessions: backed by the file named by the system property
+   * {@value #STATS_FILE_PROPERTY}, or only kept in memory if the property is not set or the file
+   * cannot be used. A store backed by a file is written once more when the application exits.
+   *
+   * @return the shared store
+   */
+  public static StatisticsStore getDefault() {
+    return Holder.INSTANCE;
+  }
+
+  /**
+   * Defers opening the configured store until it is actually needed.
+   */
+  private static final class Holder {
+    private static final StatisticsStore INSTANCE = openConfigured();
+
+    private static StatisticsStore openConfigured() {
+      String configured = System.getProperty(STATS_FILE_PROPERTY);
+      if (configured == null) {
+        return inMemory();
+      }
+      try {
+        StatisticsStore store = open(Paths.get(configured));
+        Runtime.getRuntime().addShutdownHook(new Thread(store::closeQuietly));
+        return store;
+      } catch (IOException | IllegalArgumentException e) {
+        // Statistics are not essential for playing, they are only kept for this run instead
+        return inMemory();
+      }
+    }
+  }
+
+  /**
+   * Count a finished game of a player.
+   *
+   * @param player  the name of the player
+   * @param won     whether the game was won
+   * @param guesses the number of guesses of a won game between 1 and
+   *                {@link Game#NUMBER_OF_GUESSES}, ignored for a lost game
+   * @throws IllegalArgumentException if a won game has an impossible number of guesses
+   */
+  public void record(String player, boolean won, int guesses) {
+    requireNonNull(player);
+    AtomicReference<PlayerStatistics> cell = players.get(player);
+    if (cell == null) {
+      cell = players.computeIfAbsent(player,
+          name -> new AtomicReference<>(PlayerStatistics.EMPTY));
+    }
+    cell.updateAndGet(statistics -> statistics.withGame(won, guesses));
+    if (file != null) {
+      changed.add(player);
+    }
+  }
+
+  /**
+   * Take a snapshot of the statistics of all players. Every game is either fully counted or not
+   * at all; games that end while the snapshot is taken may be missing.
+   *
+   * @return the statistics of every player who finished a game
+   */
+  public Map<String, PlayerStatistics> snapshot() {
+    Map<String, PlayerStatistics> snapshot = new HashMap<>();
+    players.forEach((player, cell) -> snapshot.put(player, cell.get()));
+    return Collections.unmodifiableMap(snapshot);
+  }
+
+  /**
+   * Add up the statistics of all players in a snapshot.
+   *
+   * @param snapshot a snapshot taken with {@link #snapshot()}
+   * @return the statistics of all games
+   */
+  public static PlayerStatistics total(Map<String, PlayerStatistics> snapshot) {
+    PlayerStatistics total = PlayerStatistics.EMPTY;
+    for (PlayerStatistics statistics : snapshot.values()) {
+      total = total.plus(statistics);
+    }
+    return total;
+  }
+
+  /**
+   * Read the records of the file. A record that was cut off at the end of the file is ignored, and
+   * so are an impossible record and all records after it.
+   */
+  private void read() throws IOException {
+    try (DataInputStream input = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(file)))) {
+      if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+        throw new IllegalArgumentException("The file contains no statistics");
+      }
+      while (true) {
+        String player = input.readUTF();
+        int gamesPlayed = input.readInt();
+        int gamesWon = input.readInt();
+        int currentStreak = input.readInt();
+        int maxStreak = input.readInt();
+        int[] distribution = new int[Game.NUMBER_OF_GUESSES];
+        for (int i = 0; i < distribution.length; i++) {
+          distribution[i] = input.readInt();
+        }
+        if (!isPossible(gamesPlayed, gamesWon, currentStreak, maxStreak, distribution)) {
+          //the file is corrupt from here on, like a file that ends in a partial record
+          return;
+        }
+        players.put(player, new AtomicReference<>(new PlayerStatistics(gamesPlayed, gamesWon,
+            currentStreak, maxStreak, distribution)));
+      }
+    } catch (NoSuchFileException e) {
+      // no statistics were saved yet
+    } catch (EOFException e) {
+      // all complete records have been read
+    }
+  }
+
+  /**
+   * Check whether statistics can be the result of playing games: no count is negative, every won
+   * game is counted once in the distribution, and a streak of wins is never longer than the
+   * longest one.
+   */
+  private static boolean isPossible(int gamesPlayed, int gamesWon, int currentStreak,
+      int maxStreak, int[] distribution) {
+    long distributed = 0;
+    for (int count : distribution) {
+      if (count < 0) {
+        return false;
+      }
+      distributed += count;
+    }
+    return gamesWon >= 0 && gamesWon <= gamesPlayed && distributed == gamesWon
+        && currentStreak >= 0 && currentStreak <= maxStreak && maxStreak <= gamesWon;
+  }
+
+  /**
+   * Append the statistics of all players who finished a game since the last flush, or rewrite the
+   * whole file if it holds too many outdated records.
+   *
+   * @throws IOException if the file cannot be written
+   */
+  public synchronized void flush() throws IOException {
+    if (file == null) {
+      return;
+    }
+    if (rewriteRequired || recordsInFile > players.size() + MAX_OUTDATED_RECORDS) {
+      rewrite();
+      return;
+    }
+    try {
+      for (String player : changed) {
+        //remove the mark first, so that a game that ends meanwhile marks the player again
+        changed.remove(player);
+        writeRecord(appender, player, players.get(player).get());
+        recordsInFile++;
+      }
+      appender.flush();
+    } catch (IOException e) {
+      //the file may end in a partial record, which would hide all records appended after it
+      rewriteRequired = true;
+      throw e;
+    }
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (IOException e) {
+      // the changes are written again by the next flush
+    }
+  }
+
+  /**
+   * Write the statistics of every player to a new file, which replaces the old one.
+   */
+  private void rewrite() throws IOException {
+    if (appender != null) {
+      appender.close();
+      appender = null;
+    }
+    changed.clear();
+    Map<String, PlayerStatistics> snapshot = snapshot();
+
+    Path directory = file.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    Path temp = Files.createTempFile(directory, "wordle-stats", ".tmp");
+    try {
+      try (DataOutputStream output = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(temp)))) {
+        output.writeInt(MAGIC);
+        output.writeInt(FORMAT_VERSION);
+        for (Map.Entry<String, PlayerStatistics> entry : snapshot.entrySet()) {
+          writeRecord(output, entry.getKey(), entry.getValue());
+        }
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      //the players have to be written with the next attempt
+      changed.addAll(snapshot.keySet());
+      rewriteRequired = true;
+      throw e;
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+    recordsInFile = snapshot.size();
+    rewriteRequired = false;
+    appender = new DataOutputStream(new BufferedOutputStream(
+        Files.newOutputStream(file, StandardOpenOption.APPEND)));
+  }
+
+  private static void writeRecord(DataOutputStream output, String player,
+      PlayerStatistics statistics) throws IOException {
+    output.writeUTF(player);
+    output.writeInt(statistics.getGamesPlayed());
+    output.writeInt(statistics.getGamesWon());
+    output.writeInt(statistics.getCurrentStreak());
+    output.writeInt(statistics.getMaxStreak());
+    for (int guesses = 1; guesses <= Game.NUMBER_OF_GUESSES; guesses++) {
+      output.writeInt(statistics.getGamesWonWith(guesses));
+    }
+  }
+
+  /**
+   * Stop writing in the background and write the remaining changes.
+   *
+   * @throws IOException if the file cannot be written
+   */
+  @Override
+  public void close() throws IOException {
+    if (file == null) {
+      return;
+    }
+    flusher.shutdown();
+    try {
+      flusher.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    synchronized (this) {
+      flush();
+      if (appender != null) {
+        appender.close();
+        appender = null;
+      }
+    }
+  }
+
+  private void closeQuietly() {
+    try {
+      close();
+    } catch (IOException e) {
+      // the statistics of the last few seconds are lost
+    }
+  }
+}
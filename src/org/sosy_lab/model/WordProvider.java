@@ -1,53 +1,78 @@
 package org.sosylab.model;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.util.HashSet;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
  * The word provider loads and manages the set of allowed guessing words.
  */
 class WordProvider {
-  private static final String SOLUTION_WORDLE_FILE_PATH = "wordle_solutions.txt";
-  private static final String ACCEPT_WORDLE_FILE_PATH = "wordle_allowed.txt";
-
-  private static final Set<String> SOLUTION_WORDS;
-  private static final Set<String> ALL_WORDS;
+  static final String SOLUTION_WORDLE_FILE_PATH = "wordle_solutions.txt";
+  static final String ACCEPT_WORDLE_FILE_PATH = "wordle_allowed.txt";
 
   private static final Random RANDOM = new Random();
 
-  static {
-    SOLUTION_WORDS = loadWordsFromFile(SOLUTION_WORDLE_FILE_PATH);
+  /**
+   * Holds the dictionaries, so that they are only loaded when they are first needed.
+   */
+  private static final class Words {
+    private static final Dictionary SOLUTION_WORDS;
+    private static final Dictionary ALL_WORDS;
+
+    static {
+      long start = Metric.start();
 
-    ALL_WORDS = loadWordsFromFile(ACCEPT_WORDLE_FILE_PATH);
-    ALL_WORDS.addAll(SOLUTION_WORDS);
+      //use the precompiled image unless it is missing or was compiled from other word lists,
+      //the text files are not read for the image that the build put next to them
+      ByteBuffer content = DictionaryImage.find();
+      DictionaryImage image = content == null ? null : DictionaryImage.read(content);
+      if (image != null
+          && DictionaryImage.isBundledWith(SOLUTION_WORDLE_FILE_PATH, ACCEPT_WORDLE_FILE_PATH)
+          && image.matchesSourceSizes(resourceSize(SOLUTION_WORDLE_FILE_PATH),
+              resourceSize(ACCEPT_WORDLE_FILE_PATH))) {
+        SOLUTION_WORDS = image.getSolutions();
+        ALL_WORDS = image.getAllowedWords();
+      } else {
+        byte[] solutionText = readResource(SOLUTION_WORDLE_FILE_PATH);
+        byte[] allowedText = readResource(ACCEPT_WORDLE_FILE_PATH);
+        if (image != null && image.matchesSources(solutionText, allowedText)) {
+          SOLUTION_WORDS = image.getSolutions();
+          ALL_WORDS = image.getAllowedWords();
+        } else {
+          SOLUTION_WORDS = parseSolutions(solutionText);
+          ALL_WORDS = parseAllowedWords(allowedText, solutionText);
+        }
+      }
+      Metric.LOAD_WORDS.record(start);
+    }
   }
 
   /**
-   * Load a file from a given name and store the content in a unique set  of words.
+   * Read a file from the resource directory.
    *
    * @param filename the path to the file relative to the resource directory
-   * @return a set containing a unique list of all words found in the file.
+   * @return the content of the file
    */
-  private static Set<String> loadWordsFromFile(final String filename) {
+  static byte[] readResource(final String filename) {
 
     InputStream inputStream = WordProvider.class.getClassLoader().getResourceAsStream(filename);
     if (inputStream == null) {
       throw new AssertionError("Inputstream may not be null");
     }
 
-    try (
-        InputStreamReader streamReader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
-        BufferedReader reader = new BufferedReader(streamReader)) {
-
-      return reader.lines().collect(Collectors.toCollection(HashSet::new));
-
+    try (inputStream) {
+      return inputStream.readAllBytes();
     } catch (IOException e) {
       // An exception due to IO should not occur at this point. It is probably a bug in the
       // implementation that needs to be fixed
@@ -55,14 +80,76 @@ class WordProvider {
     }
   }
 
+  /**
+   * Get the size of a file in the resource directory without reading it. It is taken from the
+   * file system or from the directory of the jar file.
+   *
+   * @param filename the path to the file relative to the resource directory
+   * @return the size of the file in bytes, or -1 if it is unknown
+   */
+  static long resourceSize(final String filename) {
+    URL resource = WordProvider.class.getClassLoader().getResource(filename);
+    if (resource == null) {
+      return -1;
+    }
+    try {
+      if (resource.getProtocol().equals("file")) {
+        //a connection to a file would open it
+        return Files.size(Paths.get(resource.toURI()));
+      }
+      URLConnection connection = resource.openConnection();
+      return connection.getContentLengthLong();
+    } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+      // Without the size, the text files are parsed instead of trusting the image
+      return -1;
+    }
+  }
+
+  /**
+   * Parse the solution words from the content of their file, one word per line.
+   *
+   * @param solutionText the content of the file of solution words
+   * @return the solution words
+   */
+  static Dictionary parseSolutions(byte[] solutionText) {
+    return Dictionary.of(lines(solutionText));
+  }
+
+  /**
+   * Parse the allowed words from the content of their file, one word per line. The solution words
+   * are allowed as well.
+   *
+   * @param allowedText  the content of the file of allowed words
+   * @param solutionText the content of the file of solution words
+   * @return the allowed words
+   */
+  static Dictionary parseAllowedWords(byte[] allowedText, byte[] solutionText) {
+    List<String> words = lines(allowedText);
+    words.addAll(lines(solutionText));
+    return Dictionary.of(words);
+  }
+
+  private static List<String> lines(byte[] text) {
+    return new String(text, StandardCharsets.UTF_8).lines()
+        .collect(Collectors.toCollection(ArrayList::new));
+  }
+
   /**
    * Draw a word from the list of possible solutions.
    *
    * @return a word to guess if the list of possible solutions is not empty
    */
   static String drawRandomWord() {
-    int size = SOLUTION_WORDS.size();
-    return SOLUTION_WORDS.stream().skip(RANDOM.nextInt(size)).findFirst().orElseThrow();
+    return Words.SOLUTION_WORDS.getWord(drawRandomSolutionId());
+  }
+
+  /**
+   * Draw the id of a word from the list of possible solutions.
+   *
+   * @return the id of a word in {@link #getSolutions()}
+   */
+  static int drawRandomSolutionId() {
+    return RANDOM.nextInt(Words.SOLUTION_WORDS.size());
   }
 
   /**
@@ -71,7 +158,26 @@ class WordProvider {
    * @param word the word to check
    * @return true if it is a valid guess.
    */
-  static boolean isValidWord(String word) {
-    return ALL_WORDS.contains(word.toLowerCase());
+  static boolean isValidWord(CharSequence word) {
+    return Words.ALL_WORDS.contains(word);
+  }
+
+  /**
+   * Get all possible solution words. The id of a word in this dictionary is stable for a given
+   * word file.
+   *
+   * @return the solution words
+   */
+  static Dictionary getSolutions() {
+    return Words.SOLUTION_WORDS;
+  }
+
+  /**
+   * Get all words that are accepted as a guess. This includes the solution words.
+   *
+   * @return the allowed words
+   */
+  static Dictionary getAllowedWords() {
+    return Words.ALL_WORDS;
   }
 }